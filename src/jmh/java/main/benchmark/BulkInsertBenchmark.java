@@ -0,0 +1,102 @@
+package main.benchmark;
+
+import main.data.model.Index;
+import main.data.model.Lemma;
+import main.data.model.Page;
+import main.data.repository.BulkInsertRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Saving one indexing batch of pages with their lemmas and index rows into H2 in
+// MySQL mode. batch goes through BulkInsertRepository, row sends one statement per
+// row as Hibernate does for IDENTITY keys. The time is per batch; the rows in a
+// batch are printed at setup.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BulkInsertBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Param({"batch", "row"})
+    public String mode;
+
+    @Param({"50"})
+    public int batchSize;
+
+    @Param({"1000"})
+    public int jdbcBatchSize;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private BulkInsertRepository bulkInsertRepository;
+    private List<Page> pages;
+    private List<Lemma> lemmas;
+    private List<Index> indexes;
+
+    @Setup
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource(URL, "sa", "sa", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS page (id INT AUTO_INCREMENT PRIMARY KEY, path TEXT NOT NULL, code INT NOT NULL, "
+                + "content MEDIUMTEXT NOT NULL, site_id INT NOT NULL, title TEXT, text MEDIUMTEXT, lemma_offsets MEDIUMTEXT)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS lemma (id INT AUTO_INCREMENT PRIMARY KEY, lemma VARCHAR(255) NOT NULL, "
+                + "frequency INT NOT NULL, site_id INT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS `index` (id INT AUTO_INCREMENT PRIMARY KEY, page_id INT NOT NULL, "
+                + "lemma_id INT NOT NULL, `rank` FLOAT NOT NULL)");
+        bulkInsertRepository = new BulkInsertRepository(jdbcTemplate, jdbcBatchSize);
+
+        SyntheticCorpus corpus = new SyntheticCorpus(batchSize, 500, 42);
+        pages = corpus.getIndexedPages(1);
+        SyntheticCorpus.SiteIndex siteIndex = SyntheticCorpus.index(pages, 1);
+        lemmas = siteIndex.getLemmas();
+        indexes = siteIndex.getIndexes();
+        System.out.println("Rows in a batch: " + pages.size() + " pages, " + lemmas.size() + " lemmas, " + indexes.size() + " indexes");
+    }
+
+    @Setup(Level.Iteration)
+    public void clearTables() {
+        jdbcTemplate.execute("TRUNCATE TABLE page");
+        jdbcTemplate.execute("TRUNCATE TABLE lemma");
+        jdbcTemplate.execute("TRUNCATE TABLE `index`");
+    }
+
+    @TearDown
+    public void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public int saveBatch() {
+        if (mode.equals("batch")) {
+            bulkInsertRepository.insertPages(pages);
+            bulkInsertRepository.insertLemmas(lemmas);
+            bulkInsertRepository.insertIndexes(indexes);
+        } else {
+            insertRowByRow();
+        }
+        return pages.size() + lemmas.size() + indexes.size();
+    }
+
+    private void insertRowByRow() {
+        for (Page page : pages) {
+            jdbcTemplate.update("INSERT INTO page (path, code, content, site_id, title, text, lemma_offsets) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    page.getPath(), page.getAnswerCode(), page.getPageContent(), page.getSiteId(), page.getTitle(), page.getText(), page.getLemmaOffsets());
+        }
+        for (Lemma lemma : lemmas) {
+            jdbcTemplate.update("INSERT INTO lemma (lemma, frequency, site_id) VALUES (?, ?, ?)",
+                    lemma.getLemma(), lemma.getFrequency(), lemma.getSiteId());
+        }
+        for (Index index : indexes) {
+            jdbcTemplate.update("INSERT INTO `index` (page_id, lemma_id, `rank`) VALUES (?, ?, ?)",
+                    index.getPageId(), index.getLemmaId(), index.getRank());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package main.benchmark;
+
+import main.data.dto.FetchedPage;
+import main.services.site.SiteConnector;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// The CPU part of crawling one fetched page: parsing the body and collecting
+// absolute links, as FrontierCrawler does before a page is passed on.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CrawlerBenchmark {
+
+    @Param({"100"})
+    public int pagesCount;
+
+    @Param({"500"})
+    public int wordsPerPage;
+
+    private FetchedPage[] fetchedPages;
+
+    @Setup
+    public void setUp() {
+        SyntheticCorpus corpus = new SyntheticCorpus(pagesCount, wordsPerPage, 42);
+        fetchedPages = new FetchedPage[pagesCount];
+        for (int page = 0; page < pagesCount; page++) {
+            fetchedPages[page] = new FetchedPage(SyntheticCorpus.getUrl(page), 200, corpus.getHtml(page));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void parsePages(Blackhole blackhole) {
+        for (int page = 0; page < 100; page++) {
+            Document document = new SiteConnector(fetchedPages[page % fetchedPages.length]).getSiteDocument();
+            for (Element href : document.select("a[href]")) {
+                blackhole.consume(href.attr("abs:href"));
+            }
+            blackhole.consume(document.toString());
+        }
+    }
+}
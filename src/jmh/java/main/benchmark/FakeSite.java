@@ -0,0 +1,70 @@
+package main.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Serves the pages of a SyntheticCorpus on a free local port, so the crawler can
+// index a large site without going to the network.
+public class FakeSite implements AutoCloseable {
+
+    private static final String PAGE_PREFIX = "/page";
+    private static final String PAGE_SUFFIX = ".html";
+
+    private final byte[][] pages;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public FakeSite(SyntheticCorpus corpus, int threads) throws IOException {
+        pages = new byte[corpus.size()][];
+        for (int page = 0; page < pages.length; page++) {
+            pages[page] = corpus.getHtml(page).getBytes(StandardCharsets.UTF_8);
+        }
+        executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int page = getPage(exchange.getRequestURI().getPath());
+        byte[] body = page < 0 ? "Not found".getBytes(StandardCharsets.UTF_8) : pages[page];
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(page < 0 ? 404 : 200, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private int getPage(String path) {
+        if (path.isEmpty() || path.equals("/")) {
+            return 0;
+        }
+        if (!path.startsWith(PAGE_PREFIX) || !path.endsWith(PAGE_SUFFIX)) {
+            return -1;
+        }
+        try {
+            int page = Integer.parseInt(path.substring(PAGE_PREFIX.length(), path.length() - PAGE_SUFFIX.length()));
+            return page > 0 && page < pages.length ? page : -1;
+        } catch (NumberFormatException exception) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package main.benchmark;
+
+import main.services.lemma.LemmFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Words per second of LemmFactory for each language. The morphology cache is sized
+// as in application.yml, so after warmup most words are cache hits, like on a crawl.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LemmFactoryBenchmark {
+
+    private static final int WORDS_COUNT = 10_000;
+
+    @Param({LemmFactory.RUSSIAN, LemmFactory.ENGLISH})
+    public String language;
+
+    private String[] words;
+
+    @Setup
+    public void setUp() {
+        LemmFactory.configure(200_000, Map.of());
+        words = new SyntheticCorpus(1, 0, 42).getWords(language, WORDS_COUNT);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS_COUNT)
+    public List<String> getLemms() {
+        return new LemmFactory(words).getLemms();
+    }
+}
@@ -0,0 +1,51 @@
+package main.benchmark;
+
+import main.data.model.Field;
+import main.data.model.Page;
+import main.services.lemma.LemmFactory;
+import main.services.lemma.LemmaRankMap;
+import main.services.lemma.Lemmatizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Pages per second through Lemmatizer, parsing included, with all processors.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LemmatizerBenchmark {
+
+    private static final int PAGES_COUNT = 100;
+
+    @Param({"500"})
+    public int wordsPerPage;
+
+    private List<Page> pages;
+    private List<Field> fields;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        LemmFactory.configure(200_000, Map.of());
+        pages = new SyntheticCorpus(PAGES_COUNT, wordsPerPage, 42).getPages(1);
+        fields = SyntheticCorpus.getFields();
+        pool = new ForkJoinPool();
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGES_COUNT)
+    public TreeMap<Integer, LemmaRankMap> lemmatizePages() {
+        return pool.invoke(new Lemmatizer(pages, fields));
+    }
+}
@@ -0,0 +1,253 @@
+package main.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import main.Main;
+import main.data.model.Status;
+import main.services.index.InvertedIndex;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// End-to-end load test: starts the application, runs /startIndexing over the sites
+// of started.sites, then sends a search workload and reports crawl, indexing and
+// search throughput. By default started.sites is a generated site served locally
+// and the database is H2 in MySQL mode; with --loadtest.fake-site=false the sites
+// and the database of application.yml are used. Options of the test start with
+// --loadtest., all other arguments are passed to the application.
+public class LoadTest {
+
+    private static final String OPTION_PREFIX = "--loadtest.";
+    private static final long POLL_MILLIS = 500;
+
+    private final Map<String, String> options;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private String appUrl;
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith(OPTION_PREFIX) && arg.contains("=")) {
+                options.put(arg.substring(OPTION_PREFIX.length(), arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                appArgs.add(arg);
+            }
+        }
+        try {
+            new LoadTest(options).run(appArgs);
+        } finally {
+            System.exit(0);
+        }
+    }
+
+    private void run(List<String> appArgs) throws Exception {
+        boolean fakeSite = Boolean.parseBoolean(getOption("fake-site", "true"));
+        SyntheticCorpus corpus = new SyntheticCorpus(getOption("pages", 3000), getOption("words-per-page", 300), getOption("seed", 42));
+        List<String> args = new ArrayList<>(List.of("--server.port=0", "--spring.main.banner-mode=off", "--logging.level.root=WARN"));
+        FakeSite site = null;
+        if (fakeSite) {
+            site = new FakeSite(corpus, getOption("site-threads", 8));
+            args.addAll(getFakeSiteArgs(site.getUrl()));
+        }
+        args.addAll(appArgs);
+        try (ConfigurableApplicationContext context = SpringApplication.run(Main.class, args.toArray(String[]::new))) {
+            appUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            runIndexing(context);
+            runSearches();
+        } finally {
+            if (site != null) {
+                site.close();
+            }
+        }
+    }
+
+    // Politeness delay is off for the local site, and rare lemmas are not dropped,
+    // because a generated site has a small vocabulary where every word is frequent.
+    private static List<String> getFakeSiteArgs(String siteUrl) {
+        return List.of(
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=sa",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--started.sites[0].url=" + siteUrl,
+                "--started.sites[0].name=Load test",
+                "--crawler.politeness.default-delay=0",
+                "--lemma-frequency.percent=100");
+    }
+
+    private void runIndexing(ConfigurableApplicationContext context) throws Exception {
+        long start = System.nanoTime();
+        get("/startIndexing");
+        long deadline = start + TimeUnit.MINUTES.toNanos(getOption("indexing-timeout-minutes", 60));
+        JsonNode statistics = get("/statistics").get("statistics");
+        while (statistics.get("total").get("isIndexing").asBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Indexing did not finish in time");
+            }
+            Thread.sleep(POLL_MILLIS);
+            statistics = get("/statistics").get("statistics");
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        long pages = count(jdbcTemplate, "page");
+        long lemmas = count(jdbcTemplate, "lemma");
+        long indexes = count(jdbcTemplate, "`index`");
+        System.out.println();
+        System.out.println("Indexing");
+        for (JsonNode site : statistics.get("detailed")) {
+            System.out.printf("  %-40s %s %s%n", site.get("url").asText(), site.get("status").asText(), site.get("error").asText());
+        }
+        System.out.printf("  time              %10.1f s%n", seconds);
+        System.out.printf("  pages             %10d (%.1f pages/s)%n", pages, pages / seconds);
+        System.out.printf("  rows              %10d (%.1f rows/s: pages %d, lemmas %d, indexes %d)%n",
+                pages + lemmas + indexes, (pages + lemmas + indexes) / seconds, pages, lemmas, indexes);
+        waitForInvertedIndex(context, statistics);
+    }
+
+    // The in-memory index reloads the indexed sites in the background.
+    private void waitForInvertedIndex(ConfigurableApplicationContext context, JsonNode statistics) throws InterruptedException {
+        if (!Boolean.parseBoolean(context.getEnvironment().getProperty("search.in-memory-index"))) {
+            return;
+        }
+        int indexedSites = 0;
+        for (JsonNode site : statistics.get("detailed")) {
+            if (site.get("status").asText().equals(Status.INDEXED.name())) {
+                indexedSites++;
+            }
+        }
+        InvertedIndex invertedIndex = context.getBean(InvertedIndex.class);
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(5);
+        while ((!invertedIndex.isReady() || invertedIndex.getSiteIds().size() < indexedSites) && System.nanoTime() < deadline) {
+            Thread.sleep(POLL_MILLIS);
+        }
+    }
+
+    private void runSearches() throws InterruptedException {
+        int searches = getOption("searches", 2000);
+        int concurrency = getOption("concurrency", 8);
+        List<String> queries = getQueries(getOption("queries", 200), getOption("seed", 42));
+        sendSearches(queries, getOption("warmup-searches", 200), concurrency);
+        SearchResults results = sendSearches(queries, searches, concurrency);
+
+        long[] latencies = results.latencies;
+        Arrays.sort(latencies);
+        System.out.println();
+        System.out.println("Search (" + searches + " requests, " + concurrency + " threads, " + queries.size() + " queries)");
+        System.out.printf("  throughput        %10.1f requests/s%n", searches / results.seconds);
+        System.out.printf("  p50               %10.2f ms%n", getPercentile(latencies, 0.50));
+        System.out.printf("  p95               %10.2f ms%n", getPercentile(latencies, 0.95));
+        System.out.printf("  p99               %10.2f ms%n", getPercentile(latencies, 0.99));
+        System.out.printf("  max               %10.2f ms%n", latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+        System.out.printf("  found / empty     %10d / %d%n", results.found.get(), searches - results.found.get() - results.failed.get());
+        System.out.printf("  failed            %10d%n", results.failed.get());
+    }
+
+    private SearchResults sendSearches(List<String> queries, int searches, int concurrency) throws InterruptedException {
+        SearchResults results = new SearchResults(searches);
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(Math.max(1, concurrency));
+        long start = System.nanoTime();
+        for (int client = 0; client < concurrency; client++) {
+            clients.execute(() -> {
+                for (int request = next.getAndIncrement(); request < searches; request = next.getAndIncrement()) {
+                    String query = queries.get(request % queries.size());
+                    long requestStart = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = send("/search?limit=20&query=" + URLEncoder.encode(query, StandardCharsets.UTF_8));
+                        results.latencies[request] = System.nanoTime() - requestStart;
+                        if (response.statusCode() == 200) {
+                            results.found.incrementAndGet();
+                        } else if (response.statusCode() >= 500) {
+                            results.failed.incrementAndGet();
+                        }
+                    } catch (Exception exception) {
+                        results.latencies[request] = System.nanoTime() - requestStart;
+                        results.failed.incrementAndGet();
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(1, TimeUnit.DAYS);
+        results.seconds = (System.nanoTime() - start) / 1e9;
+        return results;
+    }
+
+    // One to three words of the corpus vocabulary, so queries match different numbers of pages.
+    private static List<String> getQueries(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> queries = new ArrayList<>(count);
+        for (int query = 0; query < count; query++) {
+            int words = 1 + random.nextInt(3);
+            StringJoiner phrase = new StringJoiner(" ");
+            for (int word = 0; word < words; word++) {
+                phrase.add(SyntheticCorpus.RUSSIAN_WORDS[random.nextInt(SyntheticCorpus.RUSSIAN_WORDS.length)]);
+            }
+            queries.add(phrase.toString());
+        }
+        return queries;
+    }
+
+    private static double getPercentile(long[] sortedLatencies, double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int position = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, position)] / 1e6;
+    }
+
+    private static long count(JdbcTemplate jdbcTemplate, String table) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    private JsonNode get(String path) throws IOException, InterruptedException {
+        return objectMapper.readTree(send(path).body());
+    }
+
+    private HttpResponse<String> send(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(appUrl + path)).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    private String getOption(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private int getOption(String name, int defaultValue) {
+        return Integer.parseInt(getOption(name, String.valueOf(defaultValue)));
+    }
+
+    private static class SearchResults {
+
+        private final long[] latencies;
+        private final AtomicInteger found = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private double seconds;
+
+        SearchResults(int searches) {
+            this.latencies = new long[searches];
+        }
+    }
+}
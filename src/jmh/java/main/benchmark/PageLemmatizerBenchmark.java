@@ -0,0 +1,178 @@
+package main.benchmark;
+
+import main.data.model.Field;
+import main.data.model.Lemma;
+import main.data.model.Page;
+import main.services.lemma.LemmFactory;
+import main.services.lemma.LemmaRankMap;
+import main.services.lemma.PageLemmatizer;
+import main.services.lemma.WordScanner;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+// Pages per second from HTML to lemma ranks on one thread. Every page is parsed
+// once, as the crawler does to find its links. Baselines:
+// regex-per-field - PageLemmatizer before the single DOM: every field is parsed
+// again, cleaned with regular expressions and summed in a TreeMap<Lemma, Float>;
+// tree-map - PageLemmatizer before LemmaRankMap: the single DOM, with the TreeMap
+// walked for every repeated lemma;
+// russian-only - the current path with Latin words skipped, as before English
+// was lemmatized.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PageLemmatizerBenchmark {
+
+    private static final int PAGES_COUNT = 100;
+
+    @Param({"none", "regex-per-field", "tree-map", "russian-only"})
+    public String baseline;
+
+    @Param({"500", "20000"})
+    public int wordsPerPage;
+
+    private List<Page> pages;
+    private List<Field> fields;
+    private PageLemmatizer pageLemmatizer;
+    private RegexPerFieldLemmatizer regexPerFieldLemmatizer;
+    private TreeMapLemmatizer treeMapLemmatizer;
+
+    @Setup
+    public void setUp() {
+        LemmFactory.configure(200_000, Map.of());
+        pages = new SyntheticCorpus(PAGES_COUNT, wordsPerPage, 42).getPages(1);
+        fields = SyntheticCorpus.getFields();
+        pageLemmatizer = new PageLemmatizer(fields);
+        regexPerFieldLemmatizer = new RegexPerFieldLemmatizer(fields, 1);
+        treeMapLemmatizer = new TreeMapLemmatizer(fields, 1);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGES_COUNT)
+    public void lemmatizePages(Blackhole blackhole) {
+        for (Page page : pages) {
+            Document document = Jsoup.parse(page.getPageContent());
+            blackhole.consume(document);
+            blackhole.consume(lemmatize(page, document));
+        }
+    }
+
+    private Object lemmatize(Page page, Document document) {
+        switch (baseline) {
+            case "regex-per-field":
+                return regexPerFieldLemmatizer.getLemmasAndRank(page);
+            case "tree-map":
+                return treeMapLemmatizer.getLemmasAndRank(document);
+            case "russian-only":
+                return lemmatizeRussianOnly(document);
+            default:
+                return pageLemmatizer.getLemmasAndRank(document);
+        }
+    }
+
+    private LemmaRankMap lemmatizeRussianOnly(Document document) {
+        LemmaRankMap result = new LemmaRankMap();
+        for (Field field : fields) {
+            float fieldWeight = field.getWeight();
+            for (String word : WordScanner.scan(document.select(field.getSelector()).text())) {
+                if (!WordScanner.isLatin(word.charAt(0))) {
+                    LemmFactory.forEachLemm(word, lemm -> result.add(lemm, fieldWeight));
+                }
+            }
+        }
+        return result;
+    }
+
+    // PageLemmatizer before pages were lemmatized from a single DOM, copied unchanged.
+    private static class RegexPerFieldLemmatizer {
+
+        private final Iterable<Field> fieldsToLemmatize;
+
+        private final int siteId;
+
+        public RegexPerFieldLemmatizer(Iterable<Field> fieldsToLemmatize, int siteId) {
+            this.fieldsToLemmatize = fieldsToLemmatize;
+            this.siteId = siteId;
+        }
+
+        public TreeMap<Lemma, Float> getLemmasAndRank(Page page){
+            TreeMap<Lemma, Float> result = new TreeMap<>();
+            fieldsToLemmatize.forEach(field -> {
+                float fieldWeight = field.getWeight();
+                String fieldString = getFieldFromPage(page, field);
+                String[] words = fieldString.split(" ");
+
+                LemmFactory lemmFactory = new LemmFactory(words);
+                for(String lemm : lemmFactory.getLemms()){
+                    if (!result.containsKey(new Lemma(lemm, siteId))) {
+                        result.put(new Lemma(lemm, 1, siteId), fieldWeight);
+                        continue;
+                    }
+                    result.forEach((lemma, rank) -> {
+                        if(lemma.compareTo(new Lemma(lemm, siteId)) == 0){
+                            result.put(lemma, rank + fieldWeight);
+                        }
+                    });
+                }
+            });
+            return result;
+        }
+
+        private String getFieldFromPage(Page page, Field field){
+            String result = "";
+            for(Element element : Jsoup.parse(page.getPageContent()).select(field.getSelector())){
+                result = cleanElement(element);
+            }
+            return result;
+        }
+
+        private String cleanElement(Element element){
+            return element.toString().replaceAll("\n", "").replaceAll("\r", " ").replaceAll("[^А-я\\s]"," ").replaceAll("\\s{2,}", " ").toLowerCase().strip();
+        }
+    }
+
+    // PageLemmatizer before ranks were summed in LemmaRankMap, copied unchanged.
+    private static class TreeMapLemmatizer {
+
+        private final Iterable<Field> fieldsToLemmatize;
+
+        private final int siteId;
+
+        public TreeMapLemmatizer(Iterable<Field> fieldsToLemmatize, int siteId) {
+            this.fieldsToLemmatize = fieldsToLemmatize;
+            this.siteId = siteId;
+        }
+
+        public TreeMap<Lemma, Float> getLemmasAndRank(Document document){
+            TreeMap<Lemma, Float> result = new TreeMap<>();
+            for (Field field : fieldsToLemmatize) {
+                float fieldWeight = field.getWeight();
+                List<String> words = WordScanner.scan(document.select(field.getSelector()).text());
+
+                LemmFactory lemmFactory = new LemmFactory(words.toArray(String[]::new));
+                for(String lemm : lemmFactory.getLemms()){
+                    if (!result.containsKey(new Lemma(lemm, siteId))) {
+                        result.put(new Lemma(lemm, 1, siteId), fieldWeight);
+                        continue;
+                    }
+                    result.forEach((lemma, rank) -> {
+                        if(lemma.compareTo(new Lemma(lemm, siteId)) == 0){
+                            result.put(lemma, rank + fieldWeight);
+                        }
+                    });
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package main.benchmark;
+
+import main.data.model.Index;
+import main.data.model.Lemma;
+import main.services.lemma.LemmaSortByFreqAndName;
+import main.services.search.IndexListPostingSource;
+import main.services.search.PageRanker;
+import main.services.search.PostingSource;
+import main.services.search.Search;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// Intersection of the posting lists of 2, 4 and 8 query lemmas, and ranking of
+// the found pages, over the index of a generated site. The hash-sets baseline
+// intersects hash sets of page ids with retainAll and looks the index rows up by
+// page, as pages were matched before sorted posting lists.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SearchBenchmark {
+
+    @Param({"none", "hash-sets"})
+    public String baseline;
+
+    @Param({"2", "4", "8"})
+    public int termsCount;
+
+    @Param({"2000"})
+    public int pagesCount;
+
+    @Param({"200"})
+    public int rankedPagesCount;
+
+    private Set<String> queryLemmas;
+    private List<Lemma> lemmas;
+    private PostingSource postingSource;
+    private HashMap<Integer, List<Index>> foundPages;
+    private Map<Integer, Set<Integer>> pageIdsByLemmaId;
+    private Map<Integer, Map<Integer, Index>> indexesByLemmaId;
+
+    @Setup
+    public void setUp() {
+        SyntheticCorpus corpus = new SyntheticCorpus(pagesCount, 300, 42);
+        SyntheticCorpus.SiteIndex siteIndex = SyntheticCorpus.index(corpus.getPages(1), 1);
+        queryLemmas = Search.getQueryLemmas(SyntheticCorpus.getQuery(termsCount));
+        lemmas = new ArrayList<>(siteIndex.getLemmas());
+        postingSource = new IndexListPostingSource(siteIndex.getIndexes());
+        foundPages = new Search(queryLemmas, lemmas, postingSource).getFoundPages();
+        pageIdsByLemmaId = new HashMap<>();
+        indexesByLemmaId = new HashMap<>();
+        for (Index index : siteIndex.getIndexes()) {
+            pageIdsByLemmaId.computeIfAbsent(index.getLemmaId(), lemmaId -> new HashSet<>()).add(index.getPageId());
+            indexesByLemmaId.computeIfAbsent(index.getLemmaId(), lemmaId -> new HashMap<>()).put(index.getPageId(), index);
+        }
+    }
+
+    @Benchmark
+    public HashMap<Integer, List<Index>> intersect() {
+        if (baseline.equals("hash-sets")) {
+            return intersectHashSets();
+        }
+        return new Search(queryLemmas, lemmas, postingSource).getFoundPages();
+    }
+
+    @Benchmark
+    public PageRanker.RankedPage[] rank() {
+        return new PageRanker(foundPages, rankedPagesCount).getTopPages();
+    }
+
+    private HashMap<Integer, List<Index>> intersectHashSets() {
+        List<Lemma> searchLemmas = new ArrayList<>();
+        for (Lemma lemma : lemmas) {
+            if (queryLemmas.contains(lemma.getLemma())) {
+                searchLemmas.add(lemma);
+            }
+        }
+        searchLemmas.sort(new LemmaSortByFreqAndName());
+        HashMap<Integer, List<Index>> result = new HashMap<>();
+        if (searchLemmas.isEmpty() || searchLemmas.size() != queryLemmas.size()) {
+            return result;
+        }
+        Set<Integer> pageIds = new HashSet<>(pageIdsByLemmaId.get(searchLemmas.get(0).getId()));
+        for (Lemma lemma : searchLemmas.subList(1, searchLemmas.size())) {
+            pageIds.retainAll(pageIdsByLemmaId.get(lemma.getId()));
+        }
+        for (Lemma lemma : searchLemmas) {
+            Map<Integer, Index> lemmaIndexes = indexesByLemmaId.get(lemma.getId());
+            for (int pageId : pageIds) {
+                result.computeIfAbsent(pageId, key -> new ArrayList<>()).add(lemmaIndexes.get(pageId));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,131 @@
+package main.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import main.data.dto.FoundPage;
+import main.data.model.Page;
+import main.data.model.Site;
+import main.data.model.Status;
+import main.data.repository.SiteRepository;
+import main.services.page.RelevantPageLoader;
+import main.services.result.SearchResultEntityLoader;
+import main.services.search.IndexListPostingSource;
+import main.services.search.Search;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// The search response for one result page: the DTOs built by SearchResultEntityLoader
+// and their JSON as the message converter writes it. Baseline:
+// parsed-text - SearchResultEntityLoader before the DTOs: the response is built as
+// JSON text, parsed into a JSONObject and that map is serialized again.
+// Allocation per response: -prof gc.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerializationBenchmark {
+
+    @Param({"none", "parsed-text"})
+    public String baseline;
+
+    @Param({"10", "50"})
+    public int resultPagesCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SiteRepository siteRepository;
+    private List<FoundPage> foundPages;
+
+    @Setup
+    public void setUp() {
+        SyntheticCorpus corpus = new SyntheticCorpus(resultPagesCount, 500, 42);
+        SyntheticCorpus.SiteIndex siteIndex = SyntheticCorpus.index(corpus.getPages(1), 1);
+        Search search = new Search(Search.getQueryLemmas(SyntheticCorpus.getQuery(2)), siteIndex.getLemmas(), new IndexListPostingSource(siteIndex.getIndexes()));
+        Map<Integer, Float> pagesRelevance = new HashMap<>();
+        List<Page> pages = corpus.getIndexedPages(1);
+        pages.forEach(page -> pagesRelevance.put(page.getId(), 0.5f));
+        foundPages = new RelevantPageLoader(pages, search.getSearchLemmas(), pagesRelevance, 300).getRelevantPages();
+        siteRepository = getSiteRepository(new Site(1, Status.INDEXED, LocalDateTime.now(), "", "http://localhost", "Сайт"));
+    }
+
+    @Benchmark
+    public byte[] writeSearchResponse() throws JsonProcessingException {
+        if (baseline.equals("parsed-text")) {
+            ParsedTextResultEntityLoader searchResultEntityLoader = new ParsedTextResultEntityLoader(siteRepository);
+            return objectMapper.writeValueAsBytes(searchResultEntityLoader.getSearchResultJson(foundPages, 1000, null).getBody());
+        }
+        SearchResultEntityLoader searchResultEntityLoader = new SearchResultEntityLoader(siteRepository);
+        return objectMapper.writeValueAsBytes(searchResultEntityLoader.getSearchResultJson(foundPages, 1000, null).getBody());
+    }
+
+    // Only findAll is called by SearchResultEntityLoader.
+    private static SiteRepository getSiteRepository(Site site) {
+        return (SiteRepository) Proxy.newProxyInstance(SiteRepository.class.getClassLoader(), new Class<?>[]{SiteRepository.class},
+                (proxy, method, arguments) -> {
+                    if (method.getName().equals("findAll") && (arguments == null || arguments.length == 0)) {
+                        return List.of(site);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    // SearchResultEntityLoader before the typed responses, copied unchanged.
+    @Slf4j
+    private static class ParsedTextResultEntityLoader {
+
+        private HashMap<Integer, Site> sites;
+
+        public ParsedTextResultEntityLoader(SiteRepository siteRepository) {
+            this.sites = getSitesFromDB(siteRepository);
+        }
+
+        private HashMap<Integer, Site> getSitesFromDB(SiteRepository siteRepository){
+            HashMap<Integer, Site> resultSites = new HashMap<>();
+            siteRepository.findAll().forEach(site -> resultSites.put(site.getId(), site));
+            return resultSites;
+        }
+
+        public ResponseEntity<Map<String, Object>> getSearchResultJson(List<FoundPage> foundPages, int foundPagesCount, String cursor){
+            StringBuilder result = new StringBuilder();
+            result.append("{\n\"result\": true,\n \"count\": ").append(foundPagesCount).append(",\n");
+            if (cursor != null) {
+                result.append("\"cursor\": \"").append(cursor).append("\",\n");
+            }
+            result.append(" \"data\": [\n");
+            for (int counter = 0; counter < foundPages.size(); counter++){
+                result.append("{\n \"site\": \"").append(this.sites.get(foundPages.get(counter).getSiteId()).getUrl()).append("\",\n");
+                result.append("\"siteName\": \"").append(this.sites.get(foundPages.get(counter).getSiteId()).getName()).append("\",\n");
+                result.append("\"uri\": \"").append(foundPages.get(counter).getUri()).append("\",\n");
+                result.append("\"title\": \"").append(foundPages.get(counter).getTitle()).append("\",\n");
+                result.append("\"snippet\": \"").append(foundPages.get(counter).getSnippet()).append("\",\n");
+                result.append("\"relevance\": \"").append(foundPages.get(counter).getRelevance()).append("\"\n}");
+                if(counter != foundPages.size() - 1){
+                    result.append(",\n");
+                }
+            }
+            result.append("\n]\n}");
+
+            JSONParser parser = new JSONParser();
+            JSONObject resultJson = new JSONObject();
+
+            try {
+                resultJson = (JSONObject) parser.parse(result.toString());
+            } catch (ParseException e) {
+                log.info("Could not parse JSON result", e);
+            }
+            return new ResponseEntity<>(resultJson,HttpStatus.OK);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package main.benchmark;
+
+import main.data.dto.FoundPage;
+import main.data.model.Lemma;
+import main.data.model.Page;
+import main.services.page.RelevantPageLoader;
+import main.services.search.IndexListPostingSource;
+import main.services.search.Search;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Titles and snippets of one result page. storedText=true reads the text and the
+// lemma offsets saved at indexing, false parses the HTML as for older pages.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SnippetBenchmark {
+
+    @Param({"true", "false"})
+    public boolean storedText;
+
+    @Param({"10"})
+    public int resultPagesCount;
+
+    @Param({"300"})
+    public int snippetMaxLength;
+
+    private List<Page> pages;
+    private List<Lemma> searchLemmas;
+    private Map<Integer, Float> pagesRelevance;
+
+    @Setup
+    public void setUp() {
+        SyntheticCorpus corpus = new SyntheticCorpus(resultPagesCount, 1000, 42);
+        List<Page> corpusPages = storedText ? corpus.getIndexedPages(1) : corpus.getPages(1);
+        SyntheticCorpus.SiteIndex siteIndex = SyntheticCorpus.index(corpusPages, 1);
+        Search search = new Search(Search.getQueryLemmas(SyntheticCorpus.getQuery(2)), siteIndex.getLemmas(), new IndexListPostingSource(siteIndex.getIndexes()));
+        searchLemmas = search.getSearchLemmas();
+        pages = new ArrayList<>();
+        pagesRelevance = new HashMap<>();
+        for (Page page : corpusPages) {
+            pages.add(page);
+            pagesRelevance.put(page.getId(), 1.0f);
+        }
+    }
+
+    @Benchmark
+    public List<FoundPage> buildSnippets() {
+        return new RelevantPageLoader(pages, new ArrayList<>(searchLemmas), pagesRelevance, snippetMaxLength).getRelevantPages();
+    }
+}
@@ -0,0 +1,227 @@
+package main.benchmark;
+
+import main.data.model.Field;
+import main.data.model.Index;
+import main.data.model.Lemma;
+import main.data.model.Page;
+import main.services.index.Indexer;
+import main.services.lemma.LemmFactory;
+import main.services.lemma.LemmaRankMap;
+import main.services.lemma.PageLemmatizer;
+import main.services.page.PageText;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.util.*;
+
+// Generated site for the benchmarks: HTML pages of Russian text with some English,
+// word frequencies close to Zipf's law and a link graph where every page is reachable
+// from the main one. The same seed always gives the same site.
+public class SyntheticCorpus {
+
+    public static final String[] RUSSIAN_WORDS = {
+            "город", "города", "городе", "дом", "дома", "домами", "улица", "улицы", "улице",
+            "человек", "люди", "людей", "время", "времени", "год", "года", "годы", "работа",
+            "работы", "работает", "жизнь", "жизни", "день", "дня", "дни", "рука", "руки",
+            "глаза", "дело", "дела", "слово", "слова", "место", "места", "лицо", "друг",
+            "друга", "друзья", "сторона", "стороны", "голова", "головы", "вопрос", "вопросы",
+            "страна", "страны", "мир", "мира", "случай", "ребенок", "дети", "детей", "сила",
+            "силы", "конец", "вид", "система", "системы", "часть", "части", "земля", "земли",
+            "вода", "воды", "книга", "книги", "книгу", "река", "реки", "реке", "собака",
+            "собаки", "солнце", "небо", "машина", "машины", "дорога", "дороги", "птица",
+            "птицы", "поле", "лес", "леса", "лесу", "новый", "новая", "новые", "большой",
+            "большая", "хороший", "хорошая", "старый", "старая", "русский", "русская",
+            "говорить", "говорил", "сказать", "сказал", "знать", "знает", "видеть", "видел",
+            "идти", "шел", "думать", "думал", "смотреть", "смотрел", "работать", "читать",
+            "читал", "писать", "писал", "быстро", "медленно", "хорошо", "сегодня", "завтра",
+            "и", "в", "на", "с", "по", "для", "но", "что", "как", "от", "до", "под", "над"
+    };
+
+    public static final String[] ENGLISH_WORDS = {
+            "search", "engine", "index", "indexing", "page", "pages", "site", "sites", "word",
+            "words", "query", "queries", "result", "results", "server", "servers", "database",
+            "table", "tables", "running", "runs", "ran", "build", "building", "built", "fast",
+            "faster", "slow", "slower", "data", "text", "texts", "link", "links", "crawler",
+            "crawling", "network", "memory", "cache", "caches", "thread", "threads", "request",
+            "requests", "response", "write", "writes", "wrote", "read", "reading", "the", "and",
+            "of", "to", "with", "for", "is", "was"
+    };
+
+    private static final String SITE_URL = "http://localhost";
+    private static final int LINKS_PER_PAGE = 8;
+
+    private final Random random;
+    private final double[] russianWeights;
+    private final double[] englishWeights;
+    private final List<String> pages = new ArrayList<>();
+
+    public SyntheticCorpus(int pagesCount, int wordsPerPage, long seed) {
+        this.random = new Random(seed);
+        this.russianWeights = getZipfWeights(RUSSIAN_WORDS.length);
+        this.englishWeights = getZipfWeights(ENGLISH_WORDS.length);
+        for (int page = 0; page < pagesCount; page++) {
+            pages.add(generatePage(page, pagesCount, wordsPerPage));
+        }
+    }
+
+    public static String getPath(int page) {
+        return page == 0 ? "/" : "/page" + page + ".html";
+    }
+
+    public static String getUrl(int page) {
+        return SITE_URL + getPath(page);
+    }
+
+    public static List<Field> getFields() {
+        Field title = new Field();
+        title.setName("title");
+        title.setSelector("title");
+        title.setWeight(1.0f);
+        Field body = new Field();
+        body.setName("body");
+        body.setSelector("body");
+        body.setWeight(0.8f);
+        return List.of(title, body);
+    }
+
+    public int size() {
+        return pages.size();
+    }
+
+    public String getHtml(int page) {
+        return pages.get(page);
+    }
+
+    // Pages as the crawler saves them, with ids starting from 1.
+    public List<Page> getPages(int siteId) {
+        List<Page> result = new ArrayList<>(pages.size());
+        for (int page = 0; page < pages.size(); page++) {
+            Page savedPage = new Page(getPath(page), 200, pages.get(page), siteId);
+            savedPage.setId(page + 1);
+            result.add(savedPage);
+        }
+        return result;
+    }
+
+    // The same pages with title, text and lemma offsets filled as at indexing.
+    public List<Page> getIndexedPages(int siteId) {
+        List<Page> result = getPages(siteId);
+        for (Page page : result) {
+            PageText.fill(page, Jsoup.parse(page.getPageContent()));
+        }
+        return result;
+    }
+
+    // Words of one language drawn with the corpus frequencies, for tokens per second.
+    public String[] getWords(String language, int count) {
+        boolean english = LemmFactory.ENGLISH.equals(language);
+        String[] words = new String[count];
+        for (int word = 0; word < count; word++) {
+            words[word] = english ? nextWord(ENGLISH_WORDS, englishWeights) : nextWord(RUSSIAN_WORDS, russianWeights);
+        }
+        return words;
+    }
+
+    // A phrase of frequent nouns, so that most pages contain every word of it.
+    public static String getQuery(int termsCount) {
+        String[] terms = {"город", "дом", "улица", "человек", "время", "год", "работа", "жизнь",
+                "день", "рука", "глаза", "дело"};
+        return String.join(" ", Arrays.copyOf(terms, Math.min(termsCount, terms.length)));
+    }
+
+    public static SiteIndex index(List<Page> pages, int siteId) {
+        return new SiteIndex(pages, siteId);
+    }
+
+    private String generatePage(int page, int pagesCount, int wordsPerPage) {
+        StringBuilder html = new StringBuilder(wordsPerPage * 10);
+        html.append("<html><head><title>").append(nextSentence(4)).append("</title></head><body>");
+        html.append("<nav>");
+        appendLink(html, (page + 1) % pagesCount);
+        for (int link = 1; link < LINKS_PER_PAGE; link++) {
+            appendLink(html, random.nextInt(pagesCount));
+        }
+        html.append("</nav>");
+        int written = 0;
+        while (written < wordsPerPage) {
+            int sentences = 3 + random.nextInt(5);
+            html.append("<p>");
+            for (int sentence = 0; sentence < sentences && written < wordsPerPage; sentence++) {
+                int words = Math.min(6 + random.nextInt(10), wordsPerPage - written);
+                html.append(nextSentence(words)).append(' ');
+                written += words;
+            }
+            html.append("</p>");
+        }
+        html.append("</body></html>");
+        return html.toString();
+    }
+
+    private void appendLink(StringBuilder html, int page) {
+        html.append("<a href=\"").append(getPath(page)).append("\">").append(nextWord(RUSSIAN_WORDS, russianWeights)).append("</a> ");
+    }
+
+    // One word in ten is English, as on mixed Russian sites.
+    private String nextSentence(int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int word = 0; word < words; word++) {
+            if (word > 0) {
+                sentence.append(' ');
+            }
+            String next = random.nextInt(10) == 0 ? nextWord(ENGLISH_WORDS, englishWeights) : nextWord(RUSSIAN_WORDS, russianWeights);
+            sentence.append(word == 0 ? Character.toUpperCase(next.charAt(0)) + next.substring(1) : next);
+        }
+        return sentence.append('.').toString();
+    }
+
+    private String nextWord(String[] words, double[] cumulativeWeights) {
+        int word = Arrays.binarySearch(cumulativeWeights, random.nextDouble());
+        return words[Math.min(word < 0 ? -word - 1 : word, words.length - 1)];
+    }
+
+    private static double[] getZipfWeights(int count) {
+        double[] weights = new double[count];
+        double sum = 0;
+        for (int rank = 0; rank < count; rank++) {
+            sum += 1.0 / (rank + 1);
+            weights[rank] = sum;
+        }
+        for (int rank = 0; rank < count; rank++) {
+            weights[rank] /= sum;
+        }
+        return weights;
+    }
+
+    // Lemmas and index rows of the pages, built by the same classes as at indexing.
+    public static class SiteIndex {
+
+        private final List<Lemma> lemmas = new ArrayList<>();
+        private final ArrayList<Index> indexes;
+
+        SiteIndex(List<Page> pages, int siteId) {
+            PageLemmatizer pageLemmatizer = new PageLemmatizer(getFields());
+            TreeMap<Integer, LemmaRankMap> lemmasResult = new TreeMap<>();
+            Map<String, Lemma> siteLemmas = new HashMap<>();
+            for (Page page : pages) {
+                Document document = Jsoup.parse(page.getPageContent());
+                LemmaRankMap lemmasAndRank = pageLemmatizer.getLemmasAndRank(document);
+                lemmasResult.put(page.getId(), lemmasAndRank);
+                lemmasAndRank.forEach((lemma, rank) -> siteLemmas.computeIfAbsent(lemma, key -> {
+                    Lemma siteLemma = new Lemma(key, 0, siteId);
+                    siteLemma.setId(siteLemmas.size() + 1);
+                    lemmas.add(siteLemma);
+                    return siteLemma;
+                }).increaseFrequency());
+            }
+            this.indexes = new Indexer().getIndexes(lemmasResult, siteLemmas);
+        }
+
+        public List<Lemma> getLemmas() {
+            return lemmas;
+        }
+
+        public ArrayList<Index> getIndexes() {
+            return indexes;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import main.data.repository.*;
 import main.services.*;
 import main.services.db.DBCleaner;
 import main.services.db.DBParamLoader;
+import main.services.index.IndexingMetrics;
 import main.services.index.IndexingPageChecker;
 import main.services.index.IndexingServices;
 import main.services.site.SiteConditionsChanger;
@@ -38,7 +39,8 @@ public class IndexController {
                            SiteStatusChecker siteStatusChecker,
                            IndexingServices indexingServices,
                            SiteConditionsChanger siteConditionsChanger,
-                           IndexingPageChecker indexingPageChecker) {
+                           IndexingPageChecker indexingPageChecker,
+                           IndexingMetrics indexingMetrics) {
         this.siteRepository = siteRepository;
         this.responseEntityLoader = responseEntityLoader;
         this.dbCleaner = dbCleaner;
@@ -47,7 +49,8 @@ public class IndexController {
         this.indexingServices = indexingServices;
         this.siteConditionsChanger = siteConditionsChanger;
         this.indexingPageChecker = indexingPageChecker;
-        this.executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        this.executorService = indexingMetrics.monitor(
+                Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()), "indexing.executor");
     }
 
     @GetMapping("/startIndexing")
@@ -1,7 +1,6 @@
 package main.controllers;
 
 import main.services.*;
-import main.services.result.SearchResultEntityOffseter;
 import main.services.search.SearchServices;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -9,9 +8,6 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.Map;
-import java.util.Objects;
-
 @RestController
 public class SearchController {
 
@@ -19,34 +15,28 @@ public class SearchController {
     ResponseEntityLoader responseEntityLoader;
     final
     SearchServices searchServices;
-    final
-    SearchResultEntityOffseter searchResultEntityOffseter;
     @Autowired
-    public SearchController(ResponseEntityLoader responseEntityLoader, SearchServices searchServices, SearchResultEntityOffseter searchResultEntityOffseter) {
+    public SearchController(ResponseEntityLoader responseEntityLoader, SearchServices searchServices) {
         this.responseEntityLoader = responseEntityLoader;
         this.searchServices = searchServices;
-        this.searchResultEntityOffseter = searchResultEntityOffseter;
     }
 
     @GetMapping("/search")
-    public ResponseEntity<? extends Map> search(@RequestParam String query, @RequestParam(required = false)  String site, @RequestParam int offset, @RequestParam int limit) {
+    public ResponseEntity<?> search(@RequestParam(required = false) String query,
+                                                @RequestParam(required = false) String site,
+                                                @RequestParam(required = false, defaultValue = "0") int offset,
+                                                @RequestParam(required = false, defaultValue = "0") int limit,
+                                                @RequestParam(required = false) String cursor) {
+        if (cursor != null && !cursor.isEmpty()){
+            return searchServices.getMatchesByCursor(cursor, site, query);
+        }
         if (query == null || query.isEmpty()){
             return responseEntityLoader.getEmptySearchQueryResponse();
         }
 
         if(site != null && !site.isEmpty()){
-            ResponseEntity<Map<String, Object>> siteResultJson = searchServices.getMatchesInSite(site, query);
-            if(!Objects.requireNonNull(siteResultJson.getBody()).containsKey("data")){
-                return siteResultJson;
-            } else {
-                return searchResultEntityOffseter.loadEntityWithOffset(limit, offset, siteResultJson);
-            }
-        }
-        ResponseEntity<Map<String, Object>> sitesResultJson = searchServices.getMatchesInSites(query);
-        if(!Objects.requireNonNull(sitesResultJson.getBody()).containsKey("data")){
-            return sitesResultJson;
-        } else {
-            return searchResultEntityOffseter.loadEntityWithOffset(limit, offset, sitesResultJson);
+            return searchServices.getMatchesInSite(site, query, offset, limit);
         }
+        return searchServices.getMatchesInSites(query, offset, limit);
     }
 }
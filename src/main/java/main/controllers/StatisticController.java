@@ -1,8 +1,8 @@
 package main.controllers;
 
+import main.data.dto.StatisticsResponse;
 import main.data.repository.SiteRepository;
 import main.services.StatisticControllerEntityLoader;
-import org.json.simple.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import org.springframework.http.ResponseEntity;
@@ -24,7 +24,7 @@ public class StatisticController {
     }
 
     @GetMapping("/statistics")
-    public ResponseEntity<JSONObject> statistics() {
+    public ResponseEntity<StatisticsResponse> statistics() {
         if(siteRepository.count() == 0){
            return statisticControllerEntityLoader.getEmptyStatisticsEntity();
         }
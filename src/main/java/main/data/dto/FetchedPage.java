@@ -0,0 +1,21 @@
+package main.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class FetchedPage {
+
+    private String url;
+    private int statusCode;
+    private String body;
+
+    public static FetchedPage failed(String url) {
+        return new FetchedPage(url, 0, null);
+    }
+
+    public boolean isConnected() {
+        return body != null;
+    }
+}
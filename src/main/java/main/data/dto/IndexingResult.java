@@ -0,0 +1,18 @@
+package main.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class IndexingResult {
+
+    private int pagesCount;
+    private int lemmasCount;
+    private int indexesCount;
+    private boolean failed;
+
+    public IndexingResult(int pagesCount, int lemmasCount, int indexesCount) {
+        this(pagesCount, lemmasCount, indexesCount, false);
+    }
+}
@@ -0,0 +1,20 @@
+package main.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class MorphologyCacheStats {
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private int size;
+    private long memoryFootprintBytes;
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
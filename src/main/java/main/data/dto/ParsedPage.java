@@ -0,0 +1,15 @@
+package main.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import main.data.model.Page;
+import org.jsoup.nodes.Document;
+
+@AllArgsConstructor
+@Getter
+public class ParsedPage {
+
+    private Page page;
+    private Document document;
+
+}
@@ -0,0 +1,21 @@
+package main.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class SearchCacheStats {
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    private int size;
+    private long memoryFootprintBytes;
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,18 @@
+package main.data.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Getter
+public class SearchResponse {
+
+    private boolean result;
+    private int count;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String cursor;
+    private List<SearchResultItem> data;
+}
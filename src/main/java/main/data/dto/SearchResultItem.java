@@ -0,0 +1,16 @@
+package main.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class SearchResultItem {
+
+    private String site;
+    private String siteName;
+    private String uri;
+    private String title;
+    private String snippet;
+    private float relevance;
+}
@@ -0,0 +1,12 @@
+package main.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class SiteCount {
+
+    private Integer siteId;
+    private Long count;
+}
@@ -0,0 +1,47 @@
+package main.data.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Getter
+public class StatisticsResponse {
+
+    private boolean result;
+    private Statistics statistics;
+
+    @AllArgsConstructor
+    @Getter
+    public static class Statistics {
+
+        private TotalStatistics total;
+        private List<DetailedStatistics> detailed;
+    }
+
+    @AllArgsConstructor
+    @Getter
+    public static class TotalStatistics {
+
+        private long sites;
+        private long pages;
+        private long lemmas;
+        @JsonProperty("isIndexing")
+        private boolean indexing;
+    }
+
+    @AllArgsConstructor
+    @Getter
+    public static class DetailedStatistics {
+
+        private String url;
+        private String name;
+        private String status;
+        private long statusTime;
+        private String error;
+        private long pages;
+        private long lemmas;
+    }
+}
@@ -10,7 +10,7 @@ import java.io.Serializable;
 @Getter
 
 @Entity
-@Table(name = "`index`")
+@Table(name = "`index`", indexes = @javax.persistence.Index(name = "lemma_id_page_id_idx", columnList = "lemma_id, page_id"))
 public class Index implements Serializable {
 
 
@@ -12,7 +12,7 @@ import java.io.Serializable;
 @Getter
 
 @Entity
-@Table(name = "lemma")
+@Table(name = "lemma", indexes = @javax.persistence.Index(name = "lemma_site_id_idx", columnList = "lemma, site_id"))
 public class Lemma implements Serializable, Comparable<Lemma> {
 
     @Setter
@@ -0,0 +1,21 @@
+package main.data.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "morphology")
+public class MorphologyParamList {
+
+    private int cacheSize = 200_000;
+
+    private Map<String, List<String>> stopWords = new HashMap<>();
+}
@@ -12,7 +12,7 @@ import java.io.Serializable;
 @Setter
 
 @Entity
-@Table(name = "page")
+@Table(name = "page", indexes = @javax.persistence.Index(name = "page_site_id_idx", columnList = "site_id"))
 public class Page implements Serializable, Comparable<Page> {
 
     @Id
@@ -26,6 +26,12 @@ public class Page implements Serializable, Comparable<Page> {
     private String pageContent;
     @Column(name = "site_id", nullable = false)
     private int siteId;
+    @Column(columnDefinition = "TEXT")
+    private String title;
+    @Column(name = "text", columnDefinition = "MEDIUMTEXT")
+    private String text;
+    @Column(name = "lemma_offsets", columnDefinition = "MEDIUMTEXT")
+    private String lemmaOffsets;
 
 
     public Page(String path, int siteId){
@@ -40,6 +46,15 @@ public class Page implements Serializable, Comparable<Page> {
         this.siteId = siteId;
     }
 
+    public Page(int id, String path, int siteId, String title, String text, String lemmaOffsets) {
+        this.id = id;
+        this.path = path;
+        this.siteId = siteId;
+        this.title = title;
+        this.text = text;
+        this.lemmaOffsets = lemmaOffsets;
+    }
+
 
     @Override
     public int compareTo(Page o) {
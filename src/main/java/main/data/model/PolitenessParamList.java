@@ -0,0 +1,26 @@
+package main.data.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "crawler.politeness")
+public class PolitenessParamList {
+
+    private long defaultDelay = 650;
+
+    private int burst = 1;
+
+    private Map<String, Long> hostDelays = new HashMap<>();
+
+    public long getDelayForHost(String host) {
+        return hostDelays.getOrDefault(host, defaultDelay);
+    }
+}
@@ -0,0 +1,123 @@
+package main.data.repository;
+
+import main.data.model.Index;
+import main.data.model.Lemma;
+import main.data.model.Page;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+// Page, lemma and index use IDENTITY keys, so Hibernate inserts them one by one.
+// Here the rows go through JDBC batches, and the generated keys are written back
+// to the entities, so index rows can refer to the lemmas and pages saved before.
+@Repository
+public class BulkInsertRepository {
+
+    private static final String INSERT_PAGE = "INSERT INTO page (path, code, content, site_id, title, text, lemma_offsets) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_LEMMA = "INSERT INTO lemma (lemma, frequency, site_id) VALUES (?, ?, ?)";
+    private static final String UPDATE_LEMMA_FREQUENCY = "UPDATE lemma SET frequency = ? WHERE id = ?";
+    private static final String INSERT_INDEX = "INSERT INTO `index` (page_id, lemma_id, `rank`) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    @Autowired
+    public BulkInsertRepository(JdbcTemplate jdbcTemplate, @Value("${indexing.jdbc-batch-size}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public void insertPages(List<Page> pages) {
+        insert(INSERT_PAGE, pages, (statement, page) -> {
+            statement.setString(1, page.getPath());
+            statement.setInt(2, page.getAnswerCode());
+            statement.setString(3, page.getPageContent());
+            statement.setInt(4, page.getSiteId());
+            statement.setString(5, page.getTitle());
+            statement.setString(6, page.getText());
+            statement.setString(7, page.getLemmaOffsets());
+        }, Page::setId);
+    }
+
+    public void insertLemmas(List<Lemma> lemmas) {
+        insert(INSERT_LEMMA, lemmas, (statement, lemma) -> {
+            statement.setString(1, lemma.getLemma());
+            statement.setInt(2, lemma.getFrequency());
+            statement.setInt(3, lemma.getSiteId());
+        }, Lemma::setId);
+    }
+
+    public void updateLemmaFrequencies(Collection<Lemma> lemmas) {
+        insert(UPDATE_LEMMA_FREQUENCY, lemmas, (statement, lemma) -> {
+            statement.setInt(1, lemma.getFrequency());
+            statement.setInt(2, lemma.getId());
+        }, null);
+    }
+
+    public void insertIndexes(List<Index> indexes) {
+        insert(INSERT_INDEX, indexes, (statement, index) -> {
+            statement.setInt(1, index.getPageId());
+            statement.setInt(2, index.getLemmaId());
+            statement.setFloat(3, index.getRank());
+        }, null);
+    }
+
+    private <T> void insert(String sql, Collection<T> rows, RowBinder<T> binder, KeySetter<T> keySetter) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            int keys = keySetter == null ? Statement.NO_GENERATED_KEYS : Statement.RETURN_GENERATED_KEYS;
+            try (PreparedStatement statement = connection.prepareStatement(sql, keys)) {
+                Iterator<T> keyTargets = rows.iterator();
+                int batched = 0;
+                for (T row : rows) {
+                    binder.bind(statement, row);
+                    statement.addBatch();
+                    if (++batched == batchSize) {
+                        executeBatch(statement, keyTargets, keySetter);
+                        batched = 0;
+                    }
+                }
+                if (batched > 0) {
+                    executeBatch(statement, keyTargets, keySetter);
+                }
+            }
+            return null;
+        });
+    }
+
+    private static <T> void executeBatch(PreparedStatement statement, Iterator<T> keyTargets, KeySetter<T> keySetter)
+            throws SQLException {
+        int[] updated = statement.executeBatch();
+        if (keySetter == null) {
+            return;
+        }
+        try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+            for (int row = 0; row < updated.length; row++) {
+                if (!generatedKeys.next()) {
+                    throw new SQLException("Generated keys were returned for " + row + " of " + updated.length + " rows");
+                }
+                keySetter.setKey(keyTargets.next(), generatedKeys.getInt(1));
+            }
+        }
+    }
+
+    private interface RowBinder<T> {
+        void bind(PreparedStatement statement, T row) throws SQLException;
+    }
+
+    private interface KeySetter<T> {
+        void setKey(T row, int key);
+    }
+}
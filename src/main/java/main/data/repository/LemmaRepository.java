@@ -1,7 +1,11 @@
 package main.data.repository;
 
+import main.data.dto.SiteCount;
 import main.data.model.Lemma;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Collection;
@@ -11,6 +15,11 @@ import java.util.List;
 public interface LemmaRepository extends CrudRepository<Lemma, Integer> {
     List<Lemma> findBySiteId(int siteId);
     List<Lemma> findByIdIn(Collection<Integer> ids);
-    List<Lemma> findBySiteIdIn(Collection<Integer> siteIds);
-    void deleteAllByIdInBatch(List<Integer> lemmasToDelete);
+    List<Lemma> findByLemmaInAndSiteIdIn(Collection<String> lemmas, Collection<Integer> siteIds);
+    @Modifying
+    @Query("DELETE FROM Lemma l WHERE l.id IN :ids")
+    void deleteAllByIdInBatch(@Param("ids") List<Integer> lemmasToDelete);
+
+    @Query("SELECT new main.data.dto.SiteCount(l.siteId, COUNT(l)) FROM Lemma l GROUP BY l.siteId")
+    List<SiteCount> countGroupBySiteId();
 }
@@ -1,18 +1,26 @@
 package main.data.repository;
 
+import main.data.dto.SiteCount;
 import main.data.model.Page;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 @Repository
 public interface PageRepository extends CrudRepository<Page, Integer> {
     List<Page> findBySiteId(int siteId);
-    List<Page> findBySiteIdAndIdIn(HashMap<Integer, Page> siteId, Set<Integer> ids);
     Optional<Page> findByPathAndSiteId(String path, int siteId);
+    long countBySiteId(int siteId);
 
+    @Query("SELECT new main.data.dto.SiteCount(p.siteId, COUNT(p)) FROM Page p GROUP BY p.siteId")
+    List<SiteCount> countGroupBySiteId();
+
+    // Only the columns of a search result, the stored HTML is not read.
+    @Query("SELECT new main.data.model.Page(p.id, p.path, p.siteId, p.title, p.text, p.lemmaOffsets) FROM Page p WHERE p.id IN :ids")
+    List<Page> findResultFieldsByIdIn(@Param("ids") Collection<Integer> ids);
 }
@@ -0,0 +1,35 @@
+package main.data.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// Reads the index rows of a site ordered by lemma and page, the order in which
+// posting lists are built, without creating an entity per row. The rows are
+// fetched in chunks, on MySQL this needs useCursorFetch in the datasource url.
+@Repository
+public class PostingRepository {
+
+    private static final String SELECT_SITE_POSTINGS = "SELECT l.id, l.lemma, l.frequency, i.page_id, i.`rank` "
+            + "FROM lemma l JOIN `index` i ON i.lemma_id = l.id WHERE l.site_id = ? ORDER BY l.id, i.page_id";
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public PostingRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    public void loadSitePostings(int siteId, PostingRowHandler handler) {
+        jdbcTemplate.query(SELECT_SITE_POSTINGS, statement -> statement.setInt(1, siteId), resultSet -> {
+            handler.accept(resultSet.getInt(1), resultSet.getString(2), resultSet.getInt(3),
+                    resultSet.getInt(4), resultSet.getFloat(5));
+        });
+    }
+
+    public interface PostingRowHandler {
+        void accept(int lemmaId, String lemma, int frequency, int pageId, float rank);
+    }
+}
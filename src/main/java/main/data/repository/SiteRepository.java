@@ -2,12 +2,25 @@ package main.data.repository;
 
 import main.data.model.Site;
 import main.data.model.Status;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface SiteRepository extends CrudRepository<Site, Integer> {
     List<Site> findByStatus(Status status);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Site s SET s.statusTime = :statusTime WHERE s.id IN :ids AND s.status = :status")
+    int updateStatusTime(@Param("ids") Collection<Integer> ids,
+                         @Param("status") Status status,
+                         @Param("statusTime") LocalDateTime statusTime);
 }
@@ -38,6 +38,7 @@ public class ResponseEntityLoader {
         responseCache.put("indexedSitesNotFound", createResponse(false, "Отсутствуют проиндексированные сайты", HttpStatus.NOT_FOUND));
         responseCache.put("searchMatchesNotFound", createResponse(false, "Отсутствуют совпадения", HttpStatus.NOT_FOUND));
         responseCache.put("relevantPagesNotFound", createResponse(false, "Отсутствует вывод найденных совпадений", HttpStatus.NOT_FOUND));
+        responseCache.put("searchCursorExpired", createResponse(false, "Страница результатов поиска устарела, повторите поиск", HttpStatus.NOT_FOUND));
     }
 
     private ResponseEntity<Map<String, Object>> createResponse(boolean result, String error, HttpStatus status) {
@@ -83,6 +84,10 @@ public class ResponseEntityLoader {
         return responseCache.get("relevantPagesNotFound");
     }
 
+    public ResponseEntity<Map<String, Object>> getSearchCursorExpiredResponse() {
+        return responseCache.get("searchCursorExpired");
+    }
+
     // Методы с динамической логикой
     public ResponseEntity<Map<String, Object>> getSiteIndexingOrEmptyPagesResponse(Site targetSite) {
         Site site = siteRepository.findById(targetSite.getId()).orElse(null);
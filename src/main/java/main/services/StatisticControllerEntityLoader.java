@@ -1,29 +1,26 @@
 package main.services;
 
-import lombok.extern.slf4j.Slf4j;
-import main.data.model.Lemma;
-import main.data.model.Page;
+import main.data.dto.SiteCount;
+import main.data.dto.StatisticsResponse;
 import main.data.model.Site;
+import main.data.model.Status;
 import main.data.repository.LemmaRepository;
 import main.data.repository.PageRepository;
 import main.data.repository.SiteRepository;
-import main.services.site.SiteStatusChecker;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
-@Slf4j
 @Component
 public class StatisticControllerEntityLoader {
 
-    private final
-    SiteStatusChecker siteStatusChecker;
     private final
     SiteRepository siteRepository;
     private final
@@ -31,79 +28,52 @@ public class StatisticControllerEntityLoader {
     private final
     LemmaRepository lemmaRepository;
 
-    public StatisticControllerEntityLoader(SiteStatusChecker siteStatusChecker, SiteRepository siteRepository, PageRepository pageRepository, LemmaRepository lemmaRepository) {
-        this.siteStatusChecker = siteStatusChecker;
+    public StatisticControllerEntityLoader(SiteRepository siteRepository, PageRepository pageRepository, LemmaRepository lemmaRepository) {
         this.siteRepository = siteRepository;
         this.pageRepository = pageRepository;
         this.lemmaRepository = lemmaRepository;
     }
 
-    public ResponseEntity<JSONObject> getEmptyStatisticsEntity(){
-        JSONParser parser = new JSONParser();
-        ResponseEntity<JSONObject> resultJson = null;
-
-        StringBuilder result = new StringBuilder();
-        result.append("{\n\"result\": true,\n\"statistics\": {\n\"total\": {\n\"sites\": ").append(0).append(",\n\"pages\": ").append(0).append(",\n\"lemmas\": ").append(0);
-        result.append(",\n\"isIndexing\": ").append(false).append("\n},\n\"detailed\": [\n");
-        result.append("{\n\"url\": \"").append(0).append("\",\n");
-        result.append("\"name\": \"").append(0).append("\",\n");
-        result.append("\"status\": \"").append(0).append("\",\n");
-        result.append("\"statusTime\": ").append(0);
-        result.append("\"error\": \"").append(0).append("\",\n");
-        result.append("\"pages\": ").append(0).append(",\n");
-        result.append("\"lemmas\": ").append(0).append("\n}");
-        result.append("\n]\n}}");
-        try {
-            resultJson = new ResponseEntity<> ((JSONObject) parser.parse(result.toString()), HttpStatus.OK);
-        } catch (ParseException e) {
-            e.printStackTrace();
-        }
-        return resultJson;
+    public ResponseEntity<StatisticsResponse> getEmptyStatisticsEntity(){
+        StatisticsResponse.TotalStatistics total = new StatisticsResponse.TotalStatistics(0, 0, 0, false);
+        return new ResponseEntity<>(new StatisticsResponse(true, new StatisticsResponse.Statistics(total, new ArrayList<>())), HttpStatus.OK);
     }
 
-    public ResponseEntity<JSONObject> getStatisticsEntity() {
-        JSONParser parser = new JSONParser();
-        ResponseEntity<JSONObject> resultJson = null;
-
-        boolean isIndexing = siteStatusChecker.indexingSitesExist();
+    // Pages and lemmas are counted by two grouped queries over the site_id columns,
+    // the totals are the sums of the site counts.
+    public ResponseEntity<StatisticsResponse> getStatisticsEntity() {
+        Map<Integer, Long> pagesCounts = toMap(pageRepository.countGroupBySiteId());
+        Map<Integer, Long> lemmasCounts = toMap(lemmaRepository.countGroupBySiteId());
 
-        StringBuilder result = new StringBuilder();
-        result.append("{\n\"result\": true,\n\"statistics\": {\n\"total\": {\n\"sites\": ").append(siteRepository.count()).append(",\n\"pages\": ").append(pageRepository.count()).append(",\n\"lemmas\": ").append(lemmaRepository.count());
-        result.append(",\n\"isIndexing\": ").append(isIndexing).append("\n},\n\"detailed\": [\n");
-
-        int siteCounter = 0;
+        boolean isIndexing = false;
+        long sitesCounter = 0;
+        long pagesCounter = 0;
+        long lemmasCounter = 0;
+        List<StatisticsResponse.DetailedStatistics> detailed = new ArrayList<>();
         for (Site site : siteRepository.findAll()) {
-            siteCounter++;
-            result.append("{\n\"url\": \"").append(site.getUrl()).append("\",\n");
-            result.append("\"name\": \"").append(site.getName()).append("\",\n");
-            result.append("\"status\": \"").append(site.getStatus()).append("\",\n");
-            result.append("\"statusTime\": ").append(ZonedDateTime.of(site.getStatusTime(), ZoneId.systemDefault()).toInstant().toEpochMilli()).append(",\n");
-            result.append("\"error\": \"").append(site.getLastError()).append("\",\n");
-            int pagesCounter = 0;
-            for (Page page : pageRepository.findAll()){
-                if (page.getSiteId() == site.getId()){
-                    pagesCounter++;
-                }
-            }
-            result.append("\"pages\": ").append(pagesCounter).append(",\n");
-            int lemmasCounter = 0;
-            for (Lemma lemma : lemmaRepository.findAll()){
-                if (lemma.getSiteId() == site.getId()){
-                    lemmasCounter++;
-                }
-            }
-            result.append("\"lemmas\": ").append(lemmasCounter).append("\n}");
-            if (siteCounter != siteRepository.count()){
-                result.append(",\n");
-            } else {
-                result.append("\n]\n}}");
-            }
-        }
-        try {
-            resultJson = new ResponseEntity<> ((JSONObject) parser.parse(result.toString()), HttpStatus.OK);
-        } catch (ParseException e) {
-            log.info("Could not parse JSON result", e);
+            long sitePages = pagesCounts.getOrDefault(site.getId(), 0L);
+            long siteLemmas = lemmasCounts.getOrDefault(site.getId(), 0L);
+            isIndexing |= site.getStatus() == Status.INDEXING;
+            sitesCounter++;
+            pagesCounter += sitePages;
+            lemmasCounter += siteLemmas;
+            detailed.add(new StatisticsResponse.DetailedStatistics(
+                    site.getUrl(),
+                    site.getName(),
+                    String.valueOf(site.getStatus()),
+                    ZonedDateTime.of(site.getStatusTime(), ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                    site.getLastError() == null ? "" : site.getLastError(),
+                    sitePages,
+                    siteLemmas));
         }
-        return resultJson;
+        StatisticsResponse.TotalStatistics total = new StatisticsResponse.TotalStatistics(
+                sitesCounter, pagesCounter, lemmasCounter, isIndexing);
+        return new ResponseEntity<>(new StatisticsResponse(true, new StatisticsResponse.Statistics(total, detailed)), HttpStatus.OK);
+    }
+
+    private static Map<Integer, Long> toMap(List<SiteCount> siteCounts) {
+        Map<Integer, Long> counts = new HashMap<>();
+        siteCounts.forEach(siteCount -> counts.put(siteCount.getSiteId(), siteCount.getCount()));
+        return counts;
     }
 }
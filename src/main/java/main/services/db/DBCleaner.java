@@ -3,6 +3,7 @@ package main.services.db;
 
 import lombok.NoArgsConstructor;
 import main.data.repository.*;
+import main.services.index.InvertedIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,14 +16,16 @@ public class DBCleaner {
     private LemmaRepository lemmaRepository;
     private IndexRepository indexRepository;
     private FieldRepository fieldRepository;
+    private InvertedIndex invertedIndex;
 
     @Autowired
-    public DBCleaner(SiteRepository siteRepository, PageRepository pageRepository, LemmaRepository lemmaRepository, IndexRepository indexRepository, FieldRepository fieldRepository) {
+    public DBCleaner(SiteRepository siteRepository, PageRepository pageRepository, LemmaRepository lemmaRepository, IndexRepository indexRepository, FieldRepository fieldRepository, InvertedIndex invertedIndex) {
         this.siteRepository = siteRepository;
         this.pageRepository = pageRepository;
         this.lemmaRepository = lemmaRepository;
         this.indexRepository = indexRepository;
         this.fieldRepository = fieldRepository;
+        this.invertedIndex = invertedIndex;
     }
 
     @Transactional
@@ -32,6 +35,7 @@ public class DBCleaner {
         lemmaRepository.deleteAll();
         indexRepository.deleteAll();
         fieldRepository.deleteAll();
+        invertedIndex.clear();
     }
 
 }
@@ -0,0 +1,37 @@
+package main.services.index;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Grows every time indexed data changes, so anything computed for an older
+// generation is known to be stale.
+@Component
+public class IndexGeneration {
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public long get() {
+        return generation.get();
+    }
+
+    public long next() {
+        return generation.incrementAndGet();
+    }
+
+    // Inside a transaction the generation grows again after the commit, so results
+    // computed from uncommitted rows are not kept as current.
+    public void nextAfterCommit() {
+        next();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    next();
+                }
+            });
+        }
+    }
+}
@@ -27,24 +27,36 @@ public class IndexLoader {
         return existingIndexes;
     }
 
-    public ArrayList<Index> loadIndexFromDBByPageIdAndLemmas(Collection<Integer> pagesId, Set<Integer> lemmasId) {
-        return new ArrayList<>(indexRepository.findByPageIdInAndLemmaIdIn(pagesId, lemmasId));
-    }
-
-    public ArrayList<Index> loadIndexFromDBByLemmas(Set<Integer> lemmasId) {
-        return new ArrayList<>(indexRepository.findByLemmaIdIn(lemmasId));
-    }
-
-    public ArrayList<Index> loadIndexFromListByLemmas(List<Index> indexList, List<Lemma> searchLemmas) {
-        ArrayList<Index> existingIndexes = new ArrayList<>();
-        Set<Integer> searchLemmasId = new HashSet<>();
-        searchLemmas.forEach(lemma -> searchLemmasId.add(lemma.getId()));
-
-        for (Index indexFromDB : indexList) {
-            if(searchLemmasId.contains(indexFromDB.getLemmaId())) {
-                existingIndexes.add(indexFromDB);
+    // Lemmas of the same word on different sites make one step. A page has to
+    // contain every word of the query, so the candidate pages only shrink.
+    public ArrayList<Index> loadIndexFromDBByRarestLemmas(List<Lemma> lemmas, int queryLemmasCount) {
+        Map<String, Set<Integer>> lemmaIdsByWord = new HashMap<>();
+        Map<String, Integer> frequencyByWord = new HashMap<>();
+        for (Lemma lemma : lemmas) {
+            lemmaIdsByWord.computeIfAbsent(lemma.getLemma(), word -> new HashSet<>()).add(lemma.getId());
+            frequencyByWord.merge(lemma.getLemma(), lemma.getFrequency(), Integer::sum);
+        }
+        if (lemmaIdsByWord.size() < queryLemmasCount) {
+            return new ArrayList<>();
+        }
+        List<String> words = new ArrayList<>(lemmaIdsByWord.keySet());
+        words.sort(Comparator.comparing((String word) -> frequencyByWord.get(word)).thenComparing(word -> word));
+
+        ArrayList<Index> result = new ArrayList<>();
+        Set<Integer> pageIds = null;
+        for (String word : words) {
+            List<Index> wordIndexes = pageIds == null
+                    ? indexRepository.findByLemmaIdIn(lemmaIdsByWord.get(word))
+                    : indexRepository.findByPageIdInAndLemmaIdIn(pageIds, lemmaIdsByWord.get(word));
+            Set<Integer> wordPageIds = new HashSet<>();
+            wordIndexes.forEach(index -> wordPageIds.add(index.getPageId()));
+            if (wordPageIds.isEmpty()) {
+                return new ArrayList<>();
             }
+            result.removeIf(index -> !wordPageIds.contains(index.getPageId()));
+            result.addAll(wordIndexes);
+            pageIds = wordPageIds;
         }
-        return existingIndexes;
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,80 @@
+package main.services.index;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+// Meters of the indexing stages, published on /actuator/metrics. Stage meters are
+// tagged with the host of the site, so the slowest stage of every crawl can be found.
+@Component
+public class IndexingMetrics {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry registry;
+
+    @Autowired
+    public IndexingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void pageFetched(String host, int statusCode, long nanos) {
+        String status = statusCode > 0 ? String.valueOf(statusCode) : "failed";
+        registry.counter("indexing.pages.fetched", "host", host, "status", status).increment();
+        timer("indexing.fetch.latency", host).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void pageLemmatized(String host, long nanos) {
+        timer("indexing.lemmatize.time", host).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void batchPersisted(String host, int pagesCount, long nanos) {
+        timer("indexing.persist.batch", host).record(nanos, TimeUnit.NANOSECONDS);
+        registry.counter("indexing.pages.persisted", "host", host).increment(pagesCount);
+    }
+
+    public void politenessWait(String host, long nanos) {
+        timer("indexing.politeness.wait", host).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Queues of one indexing run; the gauges are removed when the run ends.
+    public <T> Meter queueGauge(String host, String queue, T source, ToDoubleFunction<T> size) {
+        return Gauge.builder("indexing.queue.size", source, size)
+                .tag("host", host)
+                .tag("queue", queue)
+                .register(registry);
+    }
+
+    public <T> Meter hostGauge(String name, String host, T source, ToDoubleFunction<T> value) {
+        return Gauge.builder(name, source, value).tag("host", host).register(registry);
+    }
+
+    public <T> Meter gauge(String name, T source, ToDoubleFunction<T> value) {
+        return Gauge.builder(name, source, value).register(registry);
+    }
+
+    public void remove(List<Meter> meters) {
+        meters.forEach(registry::remove);
+    }
+
+    public ExecutorService monitor(ExecutorService executor, String name) {
+        return ExecutorServiceMetrics.monitor(registry, executor, name);
+    }
+
+    private Timer timer(String name, String host) {
+        return Timer.builder(name)
+                .tag("host", host)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
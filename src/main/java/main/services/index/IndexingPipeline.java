@@ -0,0 +1,238 @@
+package main.services.index;
+
+import io.micrometer.core.instrument.Meter;
+import lombok.extern.slf4j.Slf4j;
+import main.data.dto.IndexingResult;
+import main.data.dto.ParsedPage;
+import main.data.model.*;
+import main.data.repository.BulkInsertRepository;
+import main.services.lemma.LemmaRankMap;
+import main.services.lemma.PageLemmatizer;
+import main.services.page.PageText;
+import main.services.result.ResultPageLoader;
+import main.services.site.FrontierCrawler;
+import main.services.site.HostPolitenessScheduler;
+import main.services.site.SiteConditionsChanger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+@Slf4j
+@Component
+public class IndexingPipeline {
+
+    private static final int LEMMATIZE_THREADS = Runtime.getRuntime().availableProcessors();
+
+    private final BulkInsertRepository bulkInsertRepository;
+    private final ResultPageLoader resultPageLoader;
+    private final Indexer indexer;
+    private final IndexingProgress indexingProgress;
+    private final IndexingMetrics indexingMetrics;
+    private final SiteConditionsChanger siteConditionsChanger;
+    private final TransactionTemplate transactionTemplate;
+    private final int queueCapacity;
+    private final int batchSize;
+
+    @Autowired
+    public IndexingPipeline(BulkInsertRepository bulkInsertRepository,
+                            ResultPageLoader resultPageLoader,
+                            Indexer indexer,
+                            IndexingProgress indexingProgress,
+                            IndexingMetrics indexingMetrics,
+                            SiteConditionsChanger siteConditionsChanger,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${indexing.queue-capacity}") int queueCapacity,
+                            @Value("${indexing.batch-size}") int batchSize) {
+        this.bulkInsertRepository = bulkInsertRepository;
+        this.resultPageLoader = resultPageLoader;
+        this.indexer = indexer;
+        this.indexingProgress = indexingProgress;
+        this.indexingMetrics = indexingMetrics;
+        this.siteConditionsChanger = siteConditionsChanger;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public IndexingResult index(Site targetSite, FrontierCrawler frontierCrawler, List<Field> fields) {
+        String host = HostPolitenessScheduler.getHost(targetSite.getUrl());
+        indexingProgress.start(targetSite.getId(), host);
+        try {
+            return new PipelineRun(targetSite.getId(), host, new PageLemmatizer(fields)).run(frontierCrawler);
+        } finally {
+            indexingProgress.finish(targetSite.getId());
+        }
+    }
+
+    private static class LemmatizedPage {
+
+        private static final LemmatizedPage END = new LemmatizedPage(null, null);
+
+        private final Page page;
+        private final LemmaRankMap lemmasAndRank;
+
+        LemmatizedPage(Page page, LemmaRankMap lemmasAndRank) {
+            this.page = page;
+            this.lemmasAndRank = lemmasAndRank;
+        }
+    }
+
+    private class PipelineRun {
+
+        private final ParsedPage endOfPages = new ParsedPage(null, null);
+        private final int siteId;
+        private final String host;
+        private final PageLemmatizer pageLemmatizer;
+        private final BlockingQueue<ParsedPage> crawledPages = new ArrayBlockingQueue<>(queueCapacity);
+        private final BlockingQueue<LemmatizedPage> lemmatizedPages = new ArrayBlockingQueue<>(queueCapacity);
+        private final HashMap<String, Lemma> siteLemmas = new HashMap<>();
+        private int pagesCount;
+        private int indexesCount;
+        private boolean persistFailed;
+
+        PipelineRun(int siteId, String host, PageLemmatizer pageLemmatizer) {
+            this.siteId = siteId;
+            this.host = host;
+            this.pageLemmatizer = pageLemmatizer;
+        }
+
+        IndexingResult run(FrontierCrawler frontierCrawler) {
+            ExecutorService stages = Executors.newFixedThreadPool(LEMMATIZE_THREADS + 1);
+            List<Future<?>> lemmatizeStage = new ArrayList<>();
+            for (int worker = 0; worker < LEMMATIZE_THREADS; worker++) {
+                lemmatizeStage.add(stages.submit(this::lemmatize));
+            }
+            Future<?> persistStage = stages.submit(this::persist);
+            List<Meter> queueGauges = List.of(
+                    indexingMetrics.queueGauge(host, "frontier", frontierCrawler, FrontierCrawler::getFrontierSize),
+                    indexingMetrics.queueGauge(host, "crawled", crawledPages, Collection::size),
+                    indexingMetrics.queueGauge(host, "lemmatized", lemmatizedPages, Collection::size));
+            try {
+                frontierCrawler.crawl(crawledPages);
+                for (int worker = 0; worker < LEMMATIZE_THREADS; worker++) {
+                    crawledPages.put(endOfPages);
+                }
+                for (Future<?> worker : lemmatizeStage) {
+                    worker.get();
+                }
+                lemmatizedPages.put(LemmatizedPage.END);
+                persistStage.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                log.error("Could not index site with id " + siteId, e.getCause());
+            } finally {
+                stages.shutdownNow();
+                indexingMetrics.remove(queueGauges);
+            }
+            return new IndexingResult(pagesCount, siteLemmas.size(), indexesCount, persistFailed || frontierCrawler.isSiteFailed());
+        }
+
+        private void lemmatize() {
+            try {
+                for (ParsedPage parsedPage = crawledPages.take(); parsedPage != endOfPages; parsedPage = crawledPages.take()) {
+                    Page page = parsedPage.getPage();
+                    indexingProgress.pageCrawled(siteId);
+                    LemmaRankMap lemmasAndRank = null;
+                    if (resultPageLoader.isCorrectlyResponsive(page)) {
+                        try {
+                            long start = System.nanoTime();
+                            lemmasAndRank = pageLemmatizer.getLemmasAndRank(parsedPage.getDocument());
+                            PageText.fill(page, parsedPage.getDocument());
+                            indexingMetrics.pageLemmatized(host, System.nanoTime() - start);
+                        } catch (Exception exception) {
+                            log.info("Could not lemmatize page " + page.getPath(), exception);
+                        }
+                    }
+                    lemmatizedPages.put(new LemmatizedPage(page, lemmasAndRank));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void persist() {
+            List<LemmatizedPage> batch = new ArrayList<>(batchSize);
+            try {
+                for (LemmatizedPage next = lemmatizedPages.take(); next != LemmatizedPage.END; next = lemmatizedPages.take()) {
+                    batch.add(next);
+                    if (batch.size() >= batchSize) {
+                        saveBatch(batch);
+                    }
+                }
+                saveBatch(batch);
+                if (!persistFailed) {
+                    bulkInsertRepository.updateLemmaFrequencies(siteLemmas.values());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // A batch that could not be saved fails the site, which also stops its crawl.
+        // The pages still in the queues are drained without saving, so the lemmas of
+        // the rolled back batch are never referenced by later index rows.
+        private void saveBatch(List<LemmatizedPage> batch) {
+            if (batch.isEmpty() || persistFailed) {
+                batch.clear();
+                return;
+            }
+            try {
+                long start = System.nanoTime();
+                IndexingResult saved = saveLemmatizedPages(batch);
+                indexingMetrics.batchPersisted(host, batch.size(), System.nanoTime() - start);
+                pagesCount += saved.getPagesCount();
+                indexesCount += saved.getIndexesCount();
+                indexingProgress.lemmasFound(siteId, saved.getLemmasCount());
+                indexingProgress.indexesWritten(siteId, saved.getIndexesCount());
+            } catch (Exception exception) {
+                persistFailed = true;
+                log.error("Could not save pages of site with id " + siteId, exception);
+                siteConditionsChanger.changeSiteConditionsSaveFailed(siteId, exception.getMessage());
+            }
+            batch.clear();
+        }
+
+        // Pages, new lemmas and index rows of a batch are committed together, so a
+        // failed batch leaves no pages without index rows.
+        private IndexingResult saveLemmatizedPages(List<LemmatizedPage> batch) {
+            return transactionTemplate.execute(status -> insertLemmatizedPages(batch));
+        }
+
+        private IndexingResult insertLemmatizedPages(List<LemmatizedPage> batch) {
+            List<Page> pages = new ArrayList<>(batch.size());
+            batch.forEach(lemmatizedPage -> pages.add(lemmatizedPage.page));
+            bulkInsertRepository.insertPages(pages);
+
+            TreeMap<Integer, LemmaRankMap> lemmasResult = new TreeMap<>();
+            List<Lemma> newLemmas = new ArrayList<>();
+            for (LemmatizedPage lemmatizedPage : batch) {
+                if (lemmatizedPage.lemmasAndRank == null || lemmatizedPage.lemmasAndRank.isEmpty()) {
+                    continue;
+                }
+                lemmasResult.put(lemmatizedPage.page.getId(), lemmatizedPage.lemmasAndRank);
+                lemmatizedPage.lemmasAndRank.forEach((lemma, rank) -> {
+                    Lemma siteLemma = siteLemmas.get(lemma);
+                    if (siteLemma == null) {
+                        siteLemma = new Lemma(lemma, 0, siteId);
+                        siteLemmas.put(siteLemma.getLemma(), siteLemma);
+                        newLemmas.add(siteLemma);
+                    }
+                    siteLemma.increaseFrequency();
+                });
+            }
+            if (lemmasResult.isEmpty()) {
+                return new IndexingResult(pages.size(), 0, 0);
+            }
+            bulkInsertRepository.insertLemmas(newLemmas);
+            List<Index> indexes = indexer.getIndexes(lemmasResult, siteLemmas);
+            bulkInsertRepository.insertIndexes(indexes);
+            return new IndexingResult(pages.size(), newLemmas.size(), indexes.size());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package main.services.index;
+
+import lombok.extern.slf4j.Slf4j;
+import io.micrometer.core.instrument.Meter;
+import main.data.model.Status;
+import main.data.repository.SiteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Keeps the counters of the sites being indexed and refreshes their status time
+// with one UPDATE per heartbeat instead of a save per saved row.
+@Slf4j
+@Component
+public class IndexingProgress {
+
+    private final SiteRepository siteRepository;
+    private final IndexingMetrics indexingMetrics;
+    private final Map<Integer, SiteProgress> sites = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService heartbeat;
+
+    @Autowired
+    public IndexingProgress(SiteRepository siteRepository,
+                            IndexingMetrics indexingMetrics,
+                            @Value("${indexing.heartbeat-interval}") long heartbeatInterval) {
+        this.siteRepository = siteRepository;
+        this.indexingMetrics = indexingMetrics;
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "indexing-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, heartbeatInterval);
+        heartbeat.scheduleAtFixedRate(this::beat, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // The counters of a site are published as gauges tagged with its host while it is indexed.
+    public void start(int siteId, String host) {
+        SiteProgress progress = new SiteProgress();
+        progress.gauges = List.of(
+                indexingMetrics.hostGauge("indexing.progress.pages", host, progress.pagesCrawled, LongAdder::sum),
+                indexingMetrics.hostGauge("indexing.progress.lemmas", host, progress.lemmasFound, LongAdder::sum),
+                indexingMetrics.hostGauge("indexing.progress.indexes", host, progress.indexesWritten, LongAdder::sum));
+        sites.put(siteId, progress);
+    }
+
+    public void finish(int siteId) {
+        SiteProgress progress = sites.remove(siteId);
+        if (progress != null) {
+            indexingMetrics.remove(progress.gauges);
+        }
+    }
+
+    public void pageCrawled(int siteId) {
+        SiteProgress progress = sites.get(siteId);
+        if (progress != null) {
+            progress.pagesCrawled.increment();
+        }
+    }
+
+    public void lemmasFound(int siteId, int count) {
+        SiteProgress progress = sites.get(siteId);
+        if (progress != null) {
+            progress.lemmasFound.add(count);
+        }
+    }
+
+    public void indexesWritten(int siteId, int count) {
+        SiteProgress progress = sites.get(siteId);
+        if (progress != null) {
+            progress.indexesWritten.add(count);
+        }
+    }
+
+    public boolean isIndexing() {
+        return !sites.isEmpty();
+    }
+
+    @PreDestroy
+    public void shutdownExecutor() {
+        heartbeat.shutdownNow();
+    }
+
+    private void beat() {
+        if (sites.isEmpty()) {
+            return;
+        }
+        try {
+            siteRepository.updateStatusTime(new ArrayList<>(sites.keySet()), Status.INDEXING, LocalDateTime.now());
+        } catch (Exception exception) {
+            log.info("Could not update status time of indexing sites", exception);
+        }
+    }
+
+    private static class SiteProgress {
+
+        private final LongAdder pagesCrawled = new LongAdder();
+        private final LongAdder lemmasFound = new LongAdder();
+        private final LongAdder indexesWritten = new LongAdder();
+        private List<Meter> gauges;
+    }
+}
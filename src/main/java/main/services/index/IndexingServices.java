@@ -1,9 +1,11 @@
 package main.services.index;
 
 import lombok.NoArgsConstructor;
+import main.data.dto.IndexingResult;
 import main.data.model.*;
 import main.data.repository.*;
 import main.services.lemma.*;
+import main.services.page.PageText;
 import main.services.result.*;
 import main.services.site.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,8 +21,8 @@ import java.util.concurrent.ForkJoinPool;
 @Transactional
 public class IndexingServices {
 
-    @Value("${user-agent.name}")
-    private String userAgent;
+    @Value("${crawler.host-workers}")
+    private int hostWorkers;
 
     private final SiteRepository siteRepository;
     private final PageRepository pageRepository;
@@ -34,6 +36,10 @@ public class IndexingServices {
     private final IndexLoader indexLoader;
     private final LemmasLoader lemmasLoader;
     private final LemmasFrequencyReducer lemmasFrequencyReducer;
+    private final AsyncSiteFetcher siteFetcher;
+    private final IndexingPipeline indexingPipeline;
+    private final InvertedIndex invertedIndex;
+    private final IndexGeneration indexGeneration;
 
     @Autowired
     public IndexingServices(IndexingPageClone indexingPageClone,
@@ -47,7 +53,11 @@ public class IndexingServices {
                             LemmasFrequencyReducer lemmasFrequencyReducer,
                             Indexer indexer,
                             IndexLoader indexLoader,
-                            LemmasLoader lemmasLoader) {
+                            LemmasLoader lemmasLoader,
+                            AsyncSiteFetcher siteFetcher,
+                            IndexingPipeline indexingPipeline,
+                            InvertedIndex invertedIndex,
+                            IndexGeneration indexGeneration) {
         this.indexingPageClone = indexingPageClone;
         this.siteRepository = siteRepository;
         this.pageRepository = pageRepository;
@@ -60,21 +70,44 @@ public class IndexingServices {
         this.indexer = indexer;
         this.indexLoader = indexLoader;
         this.lemmasLoader = lemmasLoader;
+        this.siteFetcher = siteFetcher;
+        this.indexingPipeline = indexingPipeline;
+        this.invertedIndex = invertedIndex;
+        this.indexGeneration = indexGeneration;
     }
 
     public void indexTargetSite(Site targetSite) {
-        ForkJoinPool pagingPool = new ForkJoinPool();
-        SiteCrawler siteCrawler = new SiteCrawler(targetSite.getUrl(), userAgent, siteRepository);
-        pagingPool.execute(siteCrawler);
-        TreeMap<String, Page> results = pagingPool.invoke(siteCrawler);
+        try {
+            indexSitePages(targetSite);
+        } finally {
+            indexGeneration.nextAfterCommit();
+            invertedIndex.refreshSite(targetSite.getId());
+        }
+    }
 
-        if (results.isEmpty() || checkSiteFailed(targetSite.getId())) {
+    private void indexSitePages(Site targetSite) {
+        List<Field> fields = (List<Field>) fieldRepository.findAll();
+        FrontierCrawler frontierCrawler = new FrontierCrawler(targetSite, hostWorkers, siteRepository, siteFetcher);
+        IndexingResult result = indexingPipeline.index(targetSite, frontierCrawler, fields);
+
+        // The failed status is already committed by the thread that set it, and this
+        // transaction may still read the site as it was when indexing started.
+        if (result.isFailed()) {
+            return;
+        }
+        if (result.getPagesCount() == 0) {
             handleEmptyResults(targetSite);
             return;
         }
-
-        savePages(results.values());
-        processLemmas(targetSite, results.values());
+        if (result.getLemmasCount() == 0) {
+            handleEmptyLemmas(targetSite);
+            return;
+        }
+        if (result.getIndexesCount() == 0) {
+            siteConditionsChanger.changeSiteConditionsEmptyIndex(targetSite);
+            return;
+        }
+        siteConditionsChanger.changeSiteConditionsSuccessIndexed(targetSite);
     }
 
     public void indexTargetPage(String url) {
@@ -89,12 +122,8 @@ public class IndexingServices {
         }
 
         processPageIndexing(targetSite, targetUrl, targetPage);
-    }
-
-    private boolean checkSiteFailed(int siteId) {
-        return siteRepository.findById(siteId)
-                .map(site -> site.getStatus().equals(Status.FAILED))
-                .orElse(true);
+        indexGeneration.nextAfterCommit();
+        invertedIndex.refreshSite(targetSite.getId());
     }
 
     private void handleEmptyResults(Site targetSite) {
@@ -105,30 +134,11 @@ public class IndexingServices {
         }
     }
 
-    private void savePages(Collection<Page> pages) {
-        pageRepository.saveAll(pages);
-    }
-
-    private void processLemmas(Site targetSite, Collection<Page> pages) {
-        List<Field> fields = (List<Field>) fieldRepository.findAll();
-        TreeMap<Integer, TreeMap<Lemma, Float>> lemmasResult = processLemmatization(pages, fields, targetSite.getId());
-
-        if (lemmasResult.isEmpty() || checkSiteFailed(targetSite.getId())) {
-            handleEmptyLemmas(targetSite);
-            return;
-        }
-
-        saveLemmasAndIndexes(targetSite, lemmasResult);
-    }
-
-    private TreeMap<Integer, TreeMap<Lemma, Float>> processLemmatization(Collection<Page> pages,
-                                                                         List<Field> fields,
-                                                                         int siteId) {
+    private TreeMap<Integer, LemmaRankMap> processLemmatization(Collection<Page> pages, List<Field> fields) {
         ForkJoinPool lemmaPool = new ForkJoinPool();
         Lemmatizer lemmatizer = new Lemmatizer(
                 resultPageLoader.getCorrectlyResponsivePages(pages),
-                fields,
-                siteId
+                fields
         );
         return lemmaPool.invoke(lemmatizer);
     }
@@ -141,22 +151,6 @@ public class IndexingServices {
         }
     }
 
-    private void saveLemmasAndIndexes(Site targetSite, TreeMap<Integer, TreeMap<Lemma, Float>> lemmasResult) {
-        ResultLemmaLoader resultLemmaLoader = new ResultLemmaLoader(lemmasResult.values());
-        lemmaRepository.saveAll(resultLemmaLoader.getLemmaResultToDB().values());
-
-        List<Index> indexResult = new ArrayList<>(
-                indexer.getIndexes(lemmasResult, resultLemmaLoader.getLemmaResultToDB())
-        );
-
-        if (!indexResult.isEmpty()) {
-            indexRepository.saveAll(indexResult);
-            siteConditionsChanger.changeSiteConditionsSuccessIndexed(targetSite);
-        } else {
-            siteConditionsChanger.changeSiteConditionsEmptyIndex(targetSite);
-        }
-    }
-
     private Page prepareTargetPage(Site targetSite, String targetUrl) {
         Page targetPage = new Page();
         indexingPageClone.partiallyCloneTargetIndexingPage(
@@ -175,7 +169,7 @@ public class IndexingServices {
     }
 
     private void processPageIndexing(Site targetSite, String targetUrl, Page targetPage) {
-        SiteConnector siteConnector = new SiteConnector(userAgent, targetSite.getUrl() + targetUrl);
+        SiteConnector siteConnector = new SiteConnector(siteFetcher.fetch(targetSite.getUrl() + targetUrl).join());
         updatePageContent(targetPage, siteConnector);
 
         List<Page> resultPagesList = Collections.singletonList(
@@ -188,14 +182,15 @@ public class IndexingServices {
     private void updatePageContent(Page targetPage, SiteConnector siteConnector) {
         targetPage.setAnswerCode(siteConnector.getStatusCode());
         targetPage.setPageContent(siteConnector.getSiteDocument().toString());
+        PageText.fill(targetPage, siteConnector.getSiteDocument());
         pageRepository.save(targetPage);
     }
 
     private void processPageLemmas(Site targetSite, List<Page> pages) {
         List<Field> fields = (List<Field>) fieldRepository.findAll();
-        TreeMap<Integer, TreeMap<Lemma, Float>> lemmasResult = processLemmatization(pages, fields, targetSite.getId());
+        TreeMap<Integer, LemmaRankMap> lemmasResult = processLemmatization(pages, fields);
 
-        if (lemmasResult.isEmpty() || checkSiteFailed(targetSite.getId())) {
+        if (lemmasResult.isEmpty()) {
             handlePageLemmasFailure(targetSite);
             return;
         }
@@ -211,9 +206,9 @@ public class IndexingServices {
         }
     }
 
-    private void savePageLemmasAndIndexes(Site targetSite, TreeMap<Integer, TreeMap<Lemma, Float>> lemmasResult) {
+    private void savePageLemmasAndIndexes(Site targetSite, TreeMap<Integer, LemmaRankMap> lemmasResult) {
         ResultLemmasNormalizer normalizer = new ResultLemmasNormalizer(
-                new ResultLemmaLoader(lemmasResult.values()).getLemmaResultToDB(),
+                new ResultLemmaLoader(lemmasResult.values(), targetSite.getId()).getLemmaResultToDB(),
                 (HashMap<String, Lemma>) lemmasLoader.loadSiteLemmasFromDB(targetSite.getId())
         );
 
@@ -0,0 +1,241 @@
+package main.services.index;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import main.data.model.Index;
+import main.data.model.Lemma;
+import main.data.model.Site;
+import main.data.model.Status;
+import main.data.repository.PageRepository;
+import main.data.repository.PostingRepository;
+import main.data.repository.SiteRepository;
+import main.services.search.PostingIntersection;
+import main.services.search.PostingSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Posting lists of all indexed sites kept in memory, so a search reads lemmas and
+// indexes without going to the database. Sites are loaded at startup and reloaded
+// on a background thread every time their indexing finishes. The number of all
+// saved pages is read together with them, for the frequent lemma filter.
+@Slf4j
+@Component
+public class InvertedIndex implements PostingSource {
+
+    private final PostingRepository postingRepository;
+    private final SiteRepository siteRepository;
+    private final PageRepository pageRepository;
+    private final IndexGeneration indexGeneration;
+    private final boolean enabled;
+    private final Map<Integer, SiteIndex> sites = new ConcurrentHashMap<>();
+    private final ExecutorService loader;
+    private volatile boolean ready;
+    private volatile long pagesCount;
+
+    @Autowired
+    public InvertedIndex(PostingRepository postingRepository,
+                         SiteRepository siteRepository,
+                         PageRepository pageRepository,
+                         IndexGeneration indexGeneration,
+                         MeterRegistry registry,
+                         @Value("${search.in-memory-index}") boolean enabled) {
+        this.postingRepository = postingRepository;
+        this.siteRepository = siteRepository;
+        this.pageRepository = pageRepository;
+        this.indexGeneration = indexGeneration;
+        this.enabled = enabled;
+        this.loader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inverted-index-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("search.index.memory", this, InvertedIndex::getMemoryFootprintBytes)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndexedSites() {
+        if (!enabled) {
+            return;
+        }
+        loader.execute(() -> {
+            try {
+                siteRepository.findByStatus(Status.INDEXED).forEach(this::loadSite);
+                pagesCount = pageRepository.count();
+                ready = true;
+                indexGeneration.next();
+                log.info("Inverted index loaded for " + sites.size() + " sites");
+            } catch (Exception exception) {
+                log.info("Could not load inverted index", exception);
+            }
+        });
+    }
+
+    // Site status is saved in the transaction of the indexing, so the site is read
+    // again only after that transaction is committed.
+    public void refreshSite(int siteId) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    reloadSite(siteId);
+                }
+            });
+            return;
+        }
+        reloadSite(siteId);
+    }
+
+    public void clear() {
+        sites.clear();
+        pagesCount = 0;
+        indexGeneration.next();
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    public long getPagesCount() {
+        return pagesCount;
+    }
+
+    public boolean containsSite(int siteId) {
+        return sites.containsKey(siteId);
+    }
+
+    public Set<Integer> getSiteIds() {
+        return Collections.unmodifiableSet(sites.keySet());
+    }
+
+    public long getMemoryFootprintBytes() {
+        long footprint = 0;
+        for (SiteIndex siteIndex : sites.values()) {
+            footprint += siteIndex.memoryFootprintBytes;
+        }
+        return footprint;
+    }
+
+    public PostingList getPostings(int siteId, String lemma) {
+        SiteIndex siteIndex = sites.get(siteId);
+        return siteIndex == null ? null : siteIndex.postings.get(lemma);
+    }
+
+    public List<Lemma> findLemmas(Collection<Integer> siteIds, Collection<String> lemmas) {
+        List<Lemma> result = new ArrayList<>();
+        for (int siteId : siteIds) {
+            for (String lemma : lemmas) {
+                PostingList postings = getPostings(siteId, lemma);
+                if (postings != null) {
+                    Lemma foundLemma = new Lemma(postings.getLemma(), postings.getFrequency(), siteId);
+                    foundLemma.setId(postings.getLemmaId());
+                    result.add(foundLemma);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int[] getPageIds(Lemma lemma) {
+        PostingList postings = getPostings(lemma.getSiteId(), lemma.getLemma());
+        return postings == null ? new int[0] : postings.getPageIds();
+    }
+
+    @Override
+    public List<Index> getIndexes(Lemma lemma, int[] pageIds) {
+        List<Index> result = new ArrayList<>();
+        PostingList postings = getPostings(lemma.getSiteId(), lemma.getLemma());
+        if (postings == null) {
+            return result;
+        }
+        int[] postingPageIds = postings.getPageIds();
+        int position = 0;
+        for (int pageId : pageIds) {
+            position = PostingIntersection.gallop(postingPageIds, position, pageId);
+            if (position == postingPageIds.length) {
+                break;
+            }
+            if (postingPageIds[position] == pageId) {
+                result.add(new Index(pageId, postings.getLemmaId(), postings.getRank(position)));
+            }
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdownExecutor() {
+        loader.shutdownNow();
+    }
+
+    private void reloadSite(int siteId) {
+        loader.execute(() -> {
+            try {
+                Optional<Site> site = siteRepository.findById(siteId).filter(s -> s.getStatus() == Status.INDEXED);
+                if (site.isPresent()) {
+                    loadSite(site.get());
+                } else {
+                    sites.remove(siteId);
+                }
+                pagesCount = pageRepository.count();
+            } catch (Exception exception) {
+                sites.remove(siteId);
+                log.info("Could not load inverted index of site with id " + siteId, exception);
+            }
+            indexGeneration.next();
+        });
+    }
+
+    private void loadSite(Site site) {
+        int siteId = site.getId();
+        HashMap<String, PostingList> postings = new HashMap<>();
+        PostingList.Builder[] current = new PostingList.Builder[1];
+        postingRepository.loadSitePostings(siteId, (lemmaId, lemma, frequency, pageId, rank) -> {
+            if (current[0] == null || current[0].getLemmaId() != lemmaId) {
+                putPostings(postings, current[0]);
+                current[0] = new PostingList.Builder(lemma, lemmaId, siteId, frequency);
+            }
+            current[0].add(pageId, rank);
+        });
+        putPostings(postings, current[0]);
+        sites.put(siteId, new SiteIndex(postings));
+    }
+
+    private static void putPostings(Map<String, PostingList> postings, PostingList.Builder builder) {
+        if (builder != null) {
+            PostingList postingList = builder.build();
+            postings.put(postingList.getLemma(), postingList);
+        }
+    }
+
+    private static class SiteIndex {
+
+        private final Map<String, PostingList> postings;
+        private final long memoryFootprintBytes;
+
+        SiteIndex(Map<String, PostingList> postings) {
+            this.postings = postings;
+            long footprint = 0;
+            for (PostingList postingList : postings.values()) {
+                footprint += postingList.getMemoryFootprintBytes();
+            }
+            this.memoryFootprintBytes = footprint;
+        }
+    }
+}
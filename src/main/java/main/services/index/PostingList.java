@@ -0,0 +1,123 @@
+package main.services.index;
+
+import java.util.Arrays;
+
+// Pages of one lemma sorted by id. The ids are stored as varint-encoded gaps
+// between neighbouring pages, the ranks are kept in a parallel array.
+public class PostingList {
+
+    private final String lemma;
+    private final int lemmaId;
+    private final int siteId;
+    private final int frequency;
+    private final int size;
+    private final byte[] pageIdGaps;
+    private final float[] ranks;
+
+    private PostingList(String lemma, int lemmaId, int siteId, int frequency, int size, byte[] pageIdGaps, float[] ranks) {
+        this.lemma = lemma;
+        this.lemmaId = lemmaId;
+        this.siteId = siteId;
+        this.frequency = frequency;
+        this.size = size;
+        this.pageIdGaps = pageIdGaps;
+        this.ranks = ranks;
+    }
+
+    public String getLemma() {
+        return lemma;
+    }
+
+    public int getLemmaId() {
+        return lemmaId;
+    }
+
+    public int getSiteId() {
+        return siteId;
+    }
+
+    public int getFrequency() {
+        return frequency;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int[] getPageIds() {
+        int[] pageIds = new int[size];
+        int position = 0;
+        int pageId = 0;
+        for (int posting = 0; posting < size; posting++) {
+            int gap = 0;
+            int shift = 0;
+            byte next;
+            do {
+                next = pageIdGaps[position++];
+                gap |= (next & 0x7F) << shift;
+                shift += 7;
+            } while (next < 0);
+            pageId += gap;
+            pageIds[posting] = pageId;
+        }
+        return pageIds;
+    }
+
+    public float getRank(int posting) {
+        return ranks[posting];
+    }
+
+    public long getMemoryFootprintBytes() {
+        return pageIdGaps.length + 4L * ranks.length;
+    }
+
+    public static class Builder {
+
+        private final String lemma;
+        private final int lemmaId;
+        private final int siteId;
+        private final int frequency;
+        private byte[] pageIdGaps = new byte[16];
+        private float[] ranks = new float[8];
+        private int length;
+        private int size;
+        private int lastPageId;
+
+        public Builder(String lemma, int lemmaId, int siteId, int frequency) {
+            this.lemma = lemma;
+            this.lemmaId = lemmaId;
+            this.siteId = siteId;
+            this.frequency = frequency;
+        }
+
+        public int getLemmaId() {
+            return lemmaId;
+        }
+
+        public Builder add(int pageId, float rank) {
+            if (size > 0 && pageId <= lastPageId) {
+                throw new IllegalArgumentException("Page ids must be added in ascending order");
+            }
+            int gap = pageId - lastPageId;
+            lastPageId = pageId;
+            if (length + 5 > pageIdGaps.length) {
+                pageIdGaps = Arrays.copyOf(pageIdGaps, pageIdGaps.length * 2);
+            }
+            while ((gap & ~0x7F) != 0) {
+                pageIdGaps[length++] = (byte) ((gap & 0x7F) | 0x80);
+                gap >>>= 7;
+            }
+            pageIdGaps[length++] = (byte) gap;
+            if (size == ranks.length) {
+                ranks = Arrays.copyOf(ranks, size * 2);
+            }
+            ranks[size++] = rank;
+            return this;
+        }
+
+        public PostingList build() {
+            return new PostingList(lemma, lemmaId, siteId, frequency, size,
+                    Arrays.copyOf(pageIdGaps, length), Arrays.copyOf(ranks, size));
+        }
+    }
+}
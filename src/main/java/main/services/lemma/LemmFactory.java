@@ -1,25 +1,39 @@
 package main.services.lemma;
 
 import lombok.AllArgsConstructor;
+import main.data.dto.MorphologyCacheStats;
 import org.apache.lucene.morphology.LuceneMorphology;
+import org.apache.lucene.morphology.english.EnglishLuceneMorphology;
 import org.apache.lucene.morphology.russian.RussianLuceneMorphology;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.function.Consumer;
 
 @AllArgsConstructor
 public class LemmFactory {
+    public static final String RUSSIAN = "russian";
+    public static final String ENGLISH = "english";
+
     private static final Logger logger = LoggerFactory.getLogger(LemmFactory.class);
-    private static LuceneMorphology luceneMorphology;
+    private static final int DEFAULT_CACHE_SIZE = 200_000;
+    private static final int REFERENCE_BYTES = 4;
+    private static final int OBJECT_OVERHEAD_BYTES = 16;
+    private static final int STRING_OVERHEAD_BYTES = 40;
+    private static final WordForm[] NO_WORD_FORMS = new WordForm[0];
+
+    private static volatile MorphologyCache<WordForm[]> wordFormsCache = createWordFormsCache(DEFAULT_CACHE_SIZE);
+    private static Morphology russianMorphology;
+    private static Morphology englishMorphology;
 
     static {
         try {
-            luceneMorphology = new RussianLuceneMorphology();
+            russianMorphology = new Morphology(new RussianLuceneMorphology(),
+                    Set.of("СОЮЗ", "МЕЖД", "ПРЕДЛ", "ЧАСТ"));
+            englishMorphology = new Morphology(new EnglishLuceneMorphology(),
+                    Set.of("ARTICLE", "CONJ", "PREP", "PART", "INT"));
         } catch (IOException e) {
             logger.error("Failed to initialize LuceneMorphology", e);
             throw new RuntimeException("Failed to initialize LuceneMorphology", e);
@@ -28,52 +42,115 @@ public class LemmFactory {
 
     private final String[] wordsToLemmatize;
 
-    public List<String> getLemms() {
-        if (luceneMorphology == null) {
+    public static void configure(int cacheSize, Map<String, ? extends Collection<String>> stopWords) {
+        russianMorphology.setStopWords(stopWords.get(RUSSIAN));
+        englishMorphology.setStopWords(stopWords.get(ENGLISH));
+        wordFormsCache = createWordFormsCache(cacheSize);
+    }
+
+    public static MorphologyCacheStats getWordFormsCacheStats() {
+        return wordFormsCache.getStats();
+    }
+
+    public static WordForm[] analyze(String word) {
+        if (russianMorphology == null) {
             throw new IllegalStateException("LuceneMorphology not initialized");
         }
+        return wordFormsCache.get(word, LemmFactory::loadWordForms);
+    }
+
+    public static void forEachLemm(String word, Consumer<String> consumer) {
+        for (WordForm wordForm : analyze(word)) {
+            if (wordForm.isIndexable()) {
+                consumer.accept(wordForm.getLemma());
+            }
+        }
+    }
 
+    public List<String> getLemms() {
         List<String> resultLemms = new ArrayList<>();
-        List<String> tempLemms = new ArrayList<>();
 
         for (String textPart : wordsToLemmatize) {
             if (textPart.isEmpty()) {
                 continue;
             }
-
-            tempLemms.addAll(luceneMorphology.getMorphInfo(textPart));
-            for (String lemm : tempLemms) {
-                if (servicePartExist(lemm)) {
-                    continue;
-                }
-                resultLemms.add(getLemmWord(lemm));
-            }
-            tempLemms.clear();
+            forEachLemm(textPart, resultLemms::add);
         }
 
         return resultLemms;
     }
 
-    public Map<String, String> getLemmsToRelevantPageLoader() {
-        if (luceneMorphology == null) {
-            throw new IllegalStateException("LuceneMorphology not initialized");
+    // The alphabet is checked only when a word misses the cache, so the
+    // second language costs nothing for words that were already analyzed.
+    private static Morphology getMorphology(String word) {
+        if (word.isEmpty()) {
+            return null;
         }
-
-        Map<String, String> resultLemmsAndBaseWords = new HashMap<>();
-
-        for (String word : wordsToLemmatize) {
-            luceneMorphology.getNormalForms(word.toLowerCase())
-                    .forEach(normalForm -> resultLemmsAndBaseWords.put(word, normalForm));
+        boolean latin = WordScanner.isLatin(word.charAt(0));
+        for (int position = 0; position < word.length(); position++) {
+            char letter = word.charAt(position);
+            if (WordScanner.toLetter(letter) != letter || WordScanner.isLatin(letter) != latin) {
+                return null;
+            }
         }
+        return latin ? englishMorphology : russianMorphology;
+    }
 
-        return resultLemmsAndBaseWords;
+    private static WordForm[] loadWordForms(String word) {
+        Morphology morphology = getMorphology(word);
+        if (morphology == null) {
+            return NO_WORD_FORMS;
+        }
+        List<String> morphInfo = morphology.luceneMorphology.getMorphInfo(word);
+        if (morphInfo.isEmpty()) {
+            return NO_WORD_FORMS;
+        }
+        WordForm[] wordForms = new WordForm[morphInfo.size()];
+        for (int form = 0; form < wordForms.length; form++) {
+            wordForms[form] = morphology.parseWordForm(morphInfo.get(form));
+        }
+        return wordForms;
     }
 
-    private boolean servicePartExist(String lemm) {
-        return lemm.matches(".*(СОЮЗ|МЕЖД|ПРЕДЛ|ЧАСТ).*");
+    private static MorphologyCache<WordForm[]> createWordFormsCache(int cacheSize) {
+        return new MorphologyCache<>(cacheSize, wordForms -> {
+            long size = OBJECT_OVERHEAD_BYTES + (long) REFERENCE_BYTES * wordForms.length;
+            for (WordForm wordForm : wordForms) {
+                size += OBJECT_OVERHEAD_BYTES + 2L * REFERENCE_BYTES + 2
+                        + STRING_OVERHEAD_BYTES + 2L * wordForm.getLemma().length()
+                        + STRING_OVERHEAD_BYTES + 2L * wordForm.getPartOfSpeech().length();
+            }
+            return size;
+        });
     }
 
-    private String getLemmWord(String lemm) {
-        return lemm.substring(0, lemm.indexOf("|"));
+    private static class Morphology {
+
+        private final LuceneMorphology luceneMorphology;
+        private final Set<String> serviceParts;
+        private volatile Set<String> stopWords = Set.of();
+
+        Morphology(LuceneMorphology luceneMorphology, Set<String> serviceParts) {
+            this.luceneMorphology = luceneMorphology;
+            this.serviceParts = serviceParts;
+        }
+
+        void setStopWords(Collection<String> stopWords) {
+            this.stopWords = stopWords == null ? Set.of() : Set.copyOf(stopWords);
+        }
+
+        // Morph info looks like "лес|A С мр,мн,вн" or "run|1 VERB ing": the lemma,
+        // the form code and the part of speech separated by '|' and spaces.
+        WordForm parseWordForm(String morphInfo) {
+            int lemmaEnd = morphInfo.indexOf('|');
+            String lemma = lemmaEnd < 0 ? morphInfo : morphInfo.substring(0, lemmaEnd);
+            int partOfSpeechStart = morphInfo.indexOf(' ', Math.max(lemmaEnd, 0)) + 1;
+            String partOfSpeech = "";
+            if (partOfSpeechStart > 0) {
+                int partOfSpeechEnd = morphInfo.indexOf(' ', partOfSpeechStart);
+                partOfSpeech = morphInfo.substring(partOfSpeechStart, partOfSpeechEnd < 0 ? morphInfo.length() : partOfSpeechEnd);
+            }
+            return new WordForm(lemma, partOfSpeech, serviceParts.contains(partOfSpeech), stopWords.contains(lemma));
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package main.services.lemma;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import main.data.model.MorphologyParamList;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LemmFactoryConfigurer {
+
+    @Autowired
+    public LemmFactoryConfigurer(MorphologyParamList morphologyParamList, MeterRegistry registry) {
+        LemmFactory.configure(morphologyParamList.getCacheSize(), morphologyParamList.getStopWords());
+        FunctionCounter.builder("morphology.cache.hits", LemmFactory.class, factory -> LemmFactory.getWordFormsCacheStats().getHits())
+                .register(registry);
+        FunctionCounter.builder("morphology.cache.misses", LemmFactory.class, factory -> LemmFactory.getWordFormsCacheStats().getMisses())
+                .register(registry);
+        FunctionCounter.builder("morphology.cache.evictions", LemmFactory.class, factory -> LemmFactory.getWordFormsCacheStats().getEvictions())
+                .register(registry);
+        Gauge.builder("morphology.cache.hit.rate", LemmFactory.class, factory -> LemmFactory.getWordFormsCacheStats().getHitRate())
+                .register(registry);
+        Gauge.builder("morphology.cache.memory", LemmFactory.class, factory -> LemmFactory.getWordFormsCacheStats().getMemoryFootprintBytes())
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
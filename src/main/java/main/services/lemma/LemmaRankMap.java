@@ -0,0 +1,86 @@
+package main.services.lemma;
+
+public class LemmaRankMap {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private String[] lemmas;
+    private float[] ranks;
+    private int size;
+
+    public LemmaRankMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LemmaRankMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 4) * 2 - 1) << 1;
+        this.lemmas = new String[capacity];
+        this.ranks = new float[capacity];
+    }
+
+    public void add(String lemma, float rank) {
+        int slot = findSlot(lemmas, lemma);
+        if (lemmas[slot] != null) {
+            ranks[slot] += rank;
+            return;
+        }
+        lemmas[slot] = lemma;
+        ranks[slot] = rank;
+        if (++size * 2 > lemmas.length) {
+            resize();
+        }
+    }
+
+    public float get(String lemma) {
+        int slot = findSlot(lemmas, lemma);
+        return lemmas[slot] == null ? 0 : ranks[slot];
+    }
+
+    public boolean contains(String lemma) {
+        return lemmas[findSlot(lemmas, lemma)] != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEach(LemmaRankConsumer consumer) {
+        for (int slot = 0; slot < lemmas.length; slot++) {
+            if (lemmas[slot] != null) {
+                consumer.accept(lemmas[slot], ranks[slot]);
+            }
+        }
+    }
+
+    private void resize() {
+        String[] oldLemmas = lemmas;
+        float[] oldRanks = ranks;
+        lemmas = new String[oldLemmas.length * 2];
+        ranks = new float[oldLemmas.length * 2];
+        for (int slot = 0; slot < oldLemmas.length; slot++) {
+            if (oldLemmas[slot] != null) {
+                int newSlot = findSlot(lemmas, oldLemmas[slot]);
+                lemmas[newSlot] = oldLemmas[slot];
+                ranks[newSlot] = oldRanks[slot];
+            }
+        }
+    }
+
+    private static int findSlot(String[] table, String lemma) {
+        int mask = table.length - 1;
+        int hash = lemma.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (table[slot] != null && !table[slot].equals(lemma)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    public interface LemmaRankConsumer {
+        void accept(String lemma, float rank);
+    }
+}
@@ -3,10 +3,7 @@ package main.services.lemma;
 import lombok.NoArgsConstructor;
 import main.data.model.Index;
 import main.data.model.Lemma;
-import main.data.model.Site;
-import main.data.model.Status;
 import main.data.repository.LemmaRepository;
-import main.data.repository.SiteRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -22,12 +19,10 @@ public class LemmasLoader {
     private int percent;
 
     private final LemmaRepository lemmaRepository;
-    private final SiteRepository siteRepository;
 
     @Autowired
-    public LemmasLoader(LemmaRepository lemmaRepository, SiteRepository siteRepository) {
+    public LemmasLoader(LemmaRepository lemmaRepository) {
         this.lemmaRepository = lemmaRepository;
-        this.siteRepository = siteRepository;
     }
 
     public Map<String, Lemma> loadSiteLemmasFromDB(int siteId) {
@@ -52,36 +47,17 @@ public class LemmasLoader {
                 ));
     }
 
-    public Map<Integer, Lemma> loadSiteLemmasFromDBWithFreq(int siteId, long allPageCount) {
-        return lemmaRepository.findBySiteId(siteId)
+    public List<Lemma> loadLemmasFromDBByQuery(Collection<String> queryLemmas, Collection<Integer> siteIds, long allPageCount) {
+        if (queryLemmas.isEmpty() || siteIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return lemmaRepository.findByLemmaInAndSiteIdIn(queryLemmas, siteIds)
                 .stream()
                 .filter(lemma -> !lemmaFrequencyIsOften(lemma, allPageCount))
-                .collect(Collectors.toMap(
-                        Lemma::getId,
-                        lemma -> lemma,
-                        (existing, replacement) -> existing,
-                        HashMap::new
-                ));
-    }
-
-    public Map<Integer, Lemma> loadLemmasFromDBWithFreqAndIndexedSites(long allPageCount) {
-        List<Integer> indexedSiteIds = siteRepository.findByStatus(Status.INDEXED)
-                .stream()
-                .map(Site::getId)
                 .collect(Collectors.toList());
-
-        return lemmaRepository.findBySiteIdIn(indexedSiteIds)
-                .stream()
-                .filter(lemma -> !lemmaFrequencyIsOften(lemma, allPageCount))
-                .collect(Collectors.toMap(
-                        Lemma::getId,
-                        lemma -> lemma,
-                        (existing, replacement) -> existing,
-                        HashMap::new
-                ));
     }
 
-    private boolean lemmaFrequencyIsOften(Lemma lemma, long allPageCount) {
+    public boolean lemmaFrequencyIsOften(Lemma lemma, long allPageCount) {
         if (percent >= 100) {
             return false;
         }
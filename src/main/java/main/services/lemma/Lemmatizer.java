@@ -2,17 +2,13 @@ package main.services.lemma;
 
 import lombok.AllArgsConstructor;
 import main.data.model.Field;
-import main.data.model.Lemma;
 import main.data.model.Page;
 
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Element;
-
 import java.util.*;
 import java.util.concurrent.RecursiveTask;
 
 @AllArgsConstructor
-public class Lemmatizer extends RecursiveTask<TreeMap<Integer, TreeMap<Lemma, Float>>>{
+public class Lemmatizer extends RecursiveTask<TreeMap<Integer, LemmaRankMap>>{
 
         private static final int AVAILABLE_PROCESSORS = Runtime.getRuntime().availableProcessors();
 
@@ -22,17 +18,14 @@ public class Lemmatizer extends RecursiveTask<TreeMap<Integer, TreeMap<Lemma, Fl
 
         private int threshold;
 
-        private int siteId;
-
-        public Lemmatizer(List<Page> pagesToLemmatize,Iterable<Field> fieldsToLemmatize, int siteId){
+        public Lemmatizer(List<Page> pagesToLemmatize,Iterable<Field> fieldsToLemmatize){
             this.pagesToLemmatize = pagesToLemmatize;
             this.fieldsToLemmatize = fieldsToLemmatize;
-            this.siteId = siteId;
         }
 
 
-        public TreeMap<Integer, TreeMap<Lemma, Float>> compute(){
-            TreeMap<Integer, TreeMap<Lemma, Float>> result = new TreeMap<>();
+        public TreeMap<Integer, LemmaRankMap> compute(){
+            TreeMap<Integer, LemmaRankMap> result = new TreeMap<>();
             List<Lemmatizer> tasks = new ArrayList<>();
             threshold = 1;
             if(pagesToLemmatize.size() > AVAILABLE_PROCESSORS){
@@ -40,14 +33,15 @@ public class Lemmatizer extends RecursiveTask<TreeMap<Integer, TreeMap<Lemma, Fl
             }
 
             if(pagesToLemmatize.size() <= threshold){
-                pagesToLemmatize.forEach((page) -> result.put(page.getId(), getLemmasAndRank(page)));
+                PageLemmatizer pageLemmatizer = new PageLemmatizer(fieldsToLemmatize);
+                pagesToLemmatize.forEach((page) -> result.put(page.getId(), pageLemmatizer.getLemmasAndRank(page)));
             } else {
                 int limit = 0;
                 if (pagesToLemmatize.size() % threshold == 0) {
                     limit = pagesToLemmatize.size();
                 }
                 for (int partCounter = 0; partCounter != limit; partCounter += threshold) {
-                    Lemmatizer task = new Lemmatizer(pagesToLemmatize.subList(partCounter, partCounter + threshold), fieldsToLemmatize, threshold, siteId);
+                    Lemmatizer task = new Lemmatizer(pagesToLemmatize.subList(partCounter, partCounter + threshold), fieldsToLemmatize, threshold);
                     task.fork();
                     tasks.add(task);
                 }
@@ -56,11 +50,11 @@ public class Lemmatizer extends RecursiveTask<TreeMap<Integer, TreeMap<Lemma, Fl
                     return result;
                 }
                 for (int partCounter = 0; partCounter != pagesToLemmatize.size() - pagesToLemmatize.size() % threshold; partCounter += threshold) {
-                    Lemmatizer task = new Lemmatizer(pagesToLemmatize.subList(partCounter, partCounter + threshold), fieldsToLemmatize, threshold, siteId);
+                    Lemmatizer task = new Lemmatizer(pagesToLemmatize.subList(partCounter, partCounter + threshold), fieldsToLemmatize, threshold);
                     task.fork();
                     tasks.add(task);
                 }
-                Lemmatizer task = new Lemmatizer(pagesToLemmatize.subList(pagesToLemmatize.size() - pagesToLemmatize.size() % threshold, pagesToLemmatize.size()), fieldsToLemmatize, threshold, siteId);
+                Lemmatizer task = new Lemmatizer(pagesToLemmatize.subList(pagesToLemmatize.size() - pagesToLemmatize.size() % threshold, pagesToLemmatize.size()), fieldsToLemmatize, threshold);
                 task.fork();
                 tasks.add(task);
             }
@@ -70,42 +64,7 @@ public class Lemmatizer extends RecursiveTask<TreeMap<Integer, TreeMap<Lemma, Fl
 
 
 
-        private TreeMap<Lemma, Float> getLemmasAndRank(Page page){
-            TreeMap<Lemma, Float> result = new TreeMap<>();
-                fieldsToLemmatize.forEach(field ->{
-                    float fieldWeight = field.getWeight();
-                    String fieldString = getFieldFromPage(page, field);
-                    String[] words = fieldString.split(" ");
-
-                            LemmFactory lemmFactory = new LemmFactory(words);
-                            for(String lemm : lemmFactory.getLemms()){
-                                if (!result.containsKey(new Lemma(lemm, siteId))) {
-                                    result.put(new Lemma(lemm, 1, siteId), fieldWeight);
-                                    continue;
-                                }
-                                result.forEach((lemma, rank) -> {
-                                    if(lemma.compareTo(new Lemma(lemm, siteId)) == 0){
-                                    result.put(lemma, rank + fieldWeight);
-                                    }
-                                });
-                            }
-                });
-           return result;
-        }
-
-        private String getFieldFromPage(Page page, Field field){
-            String result = "";
-            for(Element element : Jsoup.parse(page.getPageContent()).select(field.getSelector())){
-              result = cleanElement(element);
-            }
-            return result;
-        }
-
-        private String cleanElement(Element element){
-            return element.toString().replaceAll("\n", "").replaceAll("\r", " ").replaceAll("[^А-я\\s]"," ").replaceAll("\\s{2,}", " ").toLowerCase().strip();
-        }
-
-        private void addResultFromTasks(TreeMap<Integer, TreeMap<Lemma, Float>> result, List<Lemmatizer> tasks){
+        private void addResultFromTasks(TreeMap<Integer, LemmaRankMap> result, List<Lemmatizer> tasks){
             tasks.forEach(task -> result.putAll(task.join()));
         }
 
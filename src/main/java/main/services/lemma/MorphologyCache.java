@@ -0,0 +1,102 @@
+package main.services.lemma;
+
+import main.data.dto.MorphologyCacheStats;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+public class MorphologyCache<V> {
+
+    private static final int SEGMENTS = 16;
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    private final List<Segment> segments = new ArrayList<>(SEGMENTS);
+    private final ToLongFunction<V> valueSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final AtomicLong memoryFootprint = new AtomicLong();
+
+    public MorphologyCache(int capacity, ToLongFunction<V> valueSize) {
+        this.valueSize = valueSize;
+        int segmentCapacity = Math.max(1, capacity / SEGMENTS);
+        for (int segment = 0; segment < SEGMENTS; segment++) {
+            segments.add(new Segment(segmentCapacity));
+        }
+    }
+
+    public V get(String word, Function<String, V> loader) {
+        Segment segment = segmentFor(word);
+        V cached;
+        synchronized (segment) {
+            cached = segment.get(word);
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        V loaded = loader.apply(word);
+        synchronized (segment) {
+            if (segment.put(word, loaded) == null) {
+                memoryFootprint.addAndGet(estimateSize(word, loaded));
+            }
+        }
+        return loaded;
+    }
+
+    public MorphologyCacheStats getStats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return new MorphologyCacheStats(hits.sum(), misses.sum(), evictions.sum(), size, memoryFootprint.get());
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+        memoryFootprint.set(0);
+    }
+
+    private Segment segmentFor(String word) {
+        int hash = word.hashCode();
+        return segments.get((hash ^ (hash >>> 16)) & (SEGMENTS - 1));
+    }
+
+    private long estimateSize(String word, V value) {
+        return ENTRY_OVERHEAD_BYTES + STRING_OVERHEAD_BYTES + 2L * word.length() + valueSize.applyAsLong(value);
+    }
+
+    private class Segment extends LinkedHashMap<String, V> {
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+            if (size() <= capacity) {
+                return false;
+            }
+            evictions.increment();
+            memoryFootprint.addAndGet(-estimateSize(eldest.getKey(), eldest.getValue()));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package main.services.lemma;
+
+import main.data.model.Field;
+import main.data.model.Page;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+public class PageLemmatizer {
+
+    private final Iterable<Field> fieldsToLemmatize;
+
+    public PageLemmatizer(Iterable<Field> fieldsToLemmatize) {
+        this.fieldsToLemmatize = fieldsToLemmatize;
+    }
+
+    public LemmaRankMap getLemmasAndRank(Page page){
+        return getLemmasAndRank(Jsoup.parse(page.getPageContent()));
+    }
+
+    public LemmaRankMap getLemmasAndRank(Document document){
+        LemmaRankMap result = new LemmaRankMap();
+        for (Field field : fieldsToLemmatize) {
+            float fieldWeight = field.getWeight();
+            for (String word : WordScanner.scan(document.select(field.getSelector()).text())) {
+                LemmFactory.forEachLemm(word, lemm -> result.add(lemm, fieldWeight));
+            }
+        }
+        return result;
+    }
+}
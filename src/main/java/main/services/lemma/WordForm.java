@@ -0,0 +1,18 @@
+package main.services.lemma;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class WordForm {
+
+    private final String lemma;
+    private final String partOfSpeech;
+    private final boolean servicePart;
+    private final boolean stopWord;
+
+    public boolean isIndexable() {
+        return !servicePart && !stopWord;
+    }
+}
@@ -0,0 +1,78 @@
+package main.services.lemma;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class WordScanner {
+
+    private static final char[] LETTERS = new char['ё' + 1];
+
+    static {
+        for (char letter = 'А'; letter <= 'Я'; letter++) {
+            LETTERS[letter] = Character.toLowerCase(letter);
+        }
+        for (char letter = 'а'; letter <= 'я'; letter++) {
+            LETTERS[letter] = letter;
+        }
+        LETTERS['Ё'] = 'е';
+        LETTERS['ё'] = 'е';
+        for (char letter = 'A'; letter <= 'Z'; letter++) {
+            LETTERS[letter] = Character.toLowerCase(letter);
+        }
+        for (char letter = 'a'; letter <= 'z'; letter++) {
+            LETTERS[letter] = letter;
+        }
+    }
+
+    private WordScanner() {
+    }
+
+    // Cyrillic and Latin letters are never mixed in one word, a change of
+    // the alphabet starts a new word.
+    public static List<String> scan(CharSequence text) {
+        List<String> words = new ArrayList<>();
+        scan(text, (word, start) -> words.add(word));
+        return words;
+    }
+
+    public static void scan(CharSequence text, WordConsumer consumer) {
+        char[] word = new char[32];
+        int length = 0;
+        int start = 0;
+        for (int position = 0; position < text.length(); position++) {
+            char letter = toLetter(text.charAt(position));
+            if (letter != 0) {
+                if (length > 0 && isLatin(letter) != isLatin(word[0])) {
+                    consumer.accept(new String(word, 0, length), start);
+                    length = 0;
+                }
+                if (length == 0) {
+                    start = position;
+                }
+                if (length == word.length) {
+                    word = Arrays.copyOf(word, length * 2);
+                }
+                word[length++] = letter;
+            } else if (length > 0) {
+                consumer.accept(new String(word, 0, length), start);
+                length = 0;
+            }
+        }
+        if (length > 0) {
+            consumer.accept(new String(word, 0, length), start);
+        }
+    }
+
+    public static char toLetter(char symbol) {
+        return symbol < LETTERS.length ? LETTERS[symbol] : 0;
+    }
+
+    public static boolean isLatin(char letter) {
+        return letter <= 'z';
+    }
+
+    public interface WordConsumer {
+        void accept(String word, int start);
+    }
+}
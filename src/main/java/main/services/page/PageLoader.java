@@ -8,7 +8,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Component
 @NoArgsConstructor(force = true)
@@ -21,26 +20,25 @@ public class PageLoader {
         this.pageRepository = pageRepository;
     }
 
-    @Transactional(readOnly = true)
-    public Map<Integer, Page> loadSitePagesFromDB(int siteId) {
-        return pageRepository.findBySiteId(siteId)
-                .stream()
-                .collect(Collectors.toMap(
-                        Page::getId,
-                        page -> page,
-                        (existing, replacement) -> existing,
-                        HashMap::new
-                ));
-    }
-
-    @Transactional(readOnly = true)
-    public List<Page> loadPagesByIdFromTargetPages(HashMap<Integer, Page> siteId, Set<Integer> pageIds) {
-        return pageRepository.findBySiteIdAndIdIn(siteId, pageIds);
-    }
-
+    // Pages saved before their text was stored are loaded with the HTML, the snippet is built from it.
     @Transactional(readOnly = true)
     public List<Page> loadPagesByIDFromPagesRepository(Set<Integer> pageIds) {
-        return (List<Page>) pageRepository.findAllById(pageIds);
+        if (pageIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Page> pages = new ArrayList<>();
+        List<Integer> pagesWithoutText = new ArrayList<>();
+        for (Page page : pageRepository.findResultFieldsByIdIn(pageIds)) {
+            if (page.getText() != null) {
+                pages.add(page);
+            } else {
+                pagesWithoutText.add(page.getId());
+            }
+        }
+        if (!pagesWithoutText.isEmpty()) {
+            pageRepository.findAllById(pagesWithoutText).forEach(pages::add);
+        }
+        return pages;
     }
 
     @Transactional(readOnly = true)
@@ -0,0 +1,98 @@
+package main.services.page;
+
+import main.data.model.Page;
+import main.services.lemma.LemmFactory;
+import main.services.lemma.WordScanner;
+import org.jsoup.nodes.Document;
+
+import java.util.*;
+
+// Title, plain text and the offsets of the words of every lemma in that text are
+// taken from the page once at indexing, so results are built without parsing HTML
+// or calling the morphology. Offsets are stored one lemma per line as gaps between
+// neighbouring words: "лемма 12 28 3".
+public class PageText {
+
+    private PageText() {
+    }
+
+    public static void fill(Page page, Document document) {
+        String text = document.body() == null ? "" : document.body().text();
+        page.setTitle(document.title());
+        page.setText(text);
+        page.setLemmaOffsets(encodeLemmaOffsets(text));
+    }
+
+    public static Map<String, int[]> getLemmaOffsets(String lemmaOffsets, Collection<String> lemmas) {
+        Map<String, int[]> result = new HashMap<>();
+        if (lemmaOffsets == null) {
+            return result;
+        }
+        int lineStart = 0;
+        while (lineStart < lemmaOffsets.length()) {
+            int lineEnd = lemmaOffsets.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = lemmaOffsets.length();
+            }
+            int lemmaEnd = lemmaOffsets.indexOf(' ', lineStart);
+            if (lemmaEnd > 0 && lemmaEnd < lineEnd) {
+                String lemma = lemmaOffsets.substring(lineStart, lemmaEnd);
+                if (lemmas.contains(lemma)) {
+                    result.put(lemma, decodeOffsets(lemmaOffsets, lemmaEnd + 1, lineEnd));
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return result;
+    }
+
+    public static int getWordEnd(String text, int start) {
+        int end = start;
+        while (end < text.length() && WordScanner.toLetter(text.charAt(end)) != 0) {
+            end++;
+        }
+        return end;
+    }
+
+    private static String encodeLemmaOffsets(String text) {
+        Map<String, List<Integer>> offsets = new LinkedHashMap<>();
+        WordScanner.scan(text, (word, start) -> LemmFactory.forEachLemm(word, lemma -> {
+            List<Integer> lemmaOffsets = offsets.computeIfAbsent(lemma, key -> new ArrayList<>());
+            if (lemmaOffsets.isEmpty() || lemmaOffsets.get(lemmaOffsets.size() - 1) != start) {
+                lemmaOffsets.add(start);
+            }
+        }));
+        StringBuilder result = new StringBuilder();
+        offsets.forEach((lemma, lemmaOffsets) -> {
+            result.append(lemma);
+            int previous = 0;
+            for (int offset : lemmaOffsets) {
+                result.append(' ').append(offset - previous);
+                previous = offset;
+            }
+            result.append('\n');
+        });
+        return result.toString();
+    }
+
+    private static int[] decodeOffsets(String lemmaOffsets, int from, int to) {
+        int[] offsets = new int[8];
+        int size = 0;
+        int offset = 0;
+        int gap = 0;
+        for (int position = from; position <= to; position++) {
+            char symbol = position < to ? lemmaOffsets.charAt(position) : ' ';
+            if (symbol == ' ') {
+                offset += gap;
+                gap = 0;
+                if (size == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, size * 2);
+                }
+                offsets[size++] = offset;
+            } else {
+                gap = gap * 10 + (symbol - '0');
+            }
+        }
+        return Arrays.copyOf(offsets, size);
+    }
+}
@@ -1,10 +1,8 @@
 package main.services.page;
 
 import main.data.dto.FoundPage;
-import main.data.model.Index;
 import main.data.model.Lemma;
 import main.data.model.Page;
-import main.services.lemma.LemmFactory;
 import main.services.lemma.LemmaSortByFreqAndName;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
@@ -16,104 +14,49 @@ public class RelevantPageLoader {
     private List<Page> pagesFromDB;
     private HashMap<String, Lemma> lemmasHashFromDB;
 
-    private int searchedSites;
-    private HashMap<Integer, List<Index>> foundedPages;
+    private Map<Integer, Float> pagesRelevance;
     private List<FoundPage> relevantPages;
+    private SnippetBuilder snippetBuilder;
 
-    public RelevantPageLoader(List<Page> pagesFromDB, List<Lemma> lemmasFromDB, HashMap<Integer, List<Index>> foundedPages) {
+    // Pages come already ranked, only the pages of the requested range are passed.
+    public RelevantPageLoader(List<Page> pagesFromDB, List<Lemma> lemmasFromDB, Map<Integer, Float> pagesRelevance,
+                              int snippetMaxLength) {
         this.pagesFromDB = pagesFromDB;
+        this.snippetBuilder = new SnippetBuilder(snippetMaxLength);
 
         lemmasFromDB.sort(new LemmaSortByFreqAndName());
         lemmasHashFromDB = new HashMap<>();
         lemmasFromDB.forEach(lemma -> this.lemmasHashFromDB.put(lemma.getLemma(), lemma));
-        this.foundedPages = foundedPages;
-        HashSet<Integer> searchSites = new HashSet<>();
-        lemmasFromDB.forEach(lemma -> searchSites.add(lemma.getSiteId()));
-        this.searchedSites = searchSites.size();
-        this.relevantPages = getRelevantPagesList(getRelevant());
+        this.pagesRelevance = pagesRelevance;
+        this.relevantPages = getRelevantPagesList();
     }
 
-    private float[][] getRelevant(){
-        int lemmOnPageCounter =  lemmasHashFromDB.size();
-        float[][] pagesRelevant = new float[pagesFromDB.size()][lemmOnPageCounter + 3];
-        float maxRelevant = 0;
-        for(int row = 0; row < pagesFromDB.size(); row++){
-            float absoluteRelevant = 0;
-            pagesRelevant[row][0] = pagesFromDB.get(row).getId();
-            for(int column = 1; column < lemmOnPageCounter + 1; column++){
-                pagesRelevant[row][column] = foundedPages.get(pagesFromDB.get(row).getId()).get(column - 1).getRank();
-                absoluteRelevant += foundedPages.get(pagesFromDB.get(row).getId()).get(column - 1).getRank();
-            }
-            pagesRelevant[row][lemmOnPageCounter + 1] = absoluteRelevant;
-            maxRelevant = Math.max(maxRelevant, absoluteRelevant);
-        }
-
-        for(int row = 0; row < pagesFromDB.size(); row++){
-            pagesRelevant[row][lemmOnPageCounter + 2] = pagesRelevant[row][lemmOnPageCounter + 1] / maxRelevant;
-        }
-        return pagesRelevant;
-    }
-
-    private ArrayList<FoundPage> getRelevantPagesList(float[][] pagesRelevant){
+    private ArrayList<FoundPage> getRelevantPagesList(){
         ArrayList<FoundPage> relevantPages = new ArrayList<>();
-        for(int row = 0; row < pagesFromDB.size(); row++){
-            Page pageFromDB = pagesFromDB.get(row);
+        for (Page pageFromDB : pagesFromDB) {
             FoundPage foundPage = new FoundPage();
             foundPage.setSiteId(pageFromDB.getSiteId());
             foundPage.setUri(pageFromDB.getPath());
-            foundPage.setRelevance(pagesRelevant[row][pagesRelevant[0].length - 1]);
-            foundPage.setTitle(getPageTitle(pageFromDB.getPageContent()));
-            foundPage.setSnippet(getOccurSnippet(pageFromDB.getPageContent()));
+            foundPage.setRelevance(pagesRelevance.get(pageFromDB.getId()));
+            String title;
+            String text;
+            Map<String, int[]> lemmaOffsets;
+            if (pageFromDB.getText() != null) {
+                title = pageFromDB.getTitle();
+                text = pageFromDB.getText();
+                lemmaOffsets = PageText.getLemmaOffsets(pageFromDB.getLemmaOffsets(), lemmasHashFromDB.keySet());
+            } else {
+                // Pages saved before the text was stored are parsed and scanned once here.
+                Document document = Jsoup.parse(pageFromDB.getPageContent());
+                title = document.title();
+                text = document.body() == null ? "" : document.body().text();
+                lemmaOffsets = SnippetBuilder.findLemmaOffsets(text, lemmasHashFromDB.keySet());
+            }
+            foundPage.setTitle(title == null ? "" : title);
+            foundPage.setSnippet(snippetBuilder.build(text, lemmaOffsets));
             relevantPages.add(foundPage);
         }
-        relevantPages.sort(new FoundPageSortByRelevanceUriAndSiteId());
         return relevantPages;
-
-    }
-
-    private String getPageTitle(String pageContent){
-        Document doc = Jsoup.parse(pageContent);
-        return doc.select("title").text().replaceAll("\"", "'");
-    }
-
-    private String getOccurSnippet(String pageContent){
-        StringBuilder result = new StringBuilder();
-        ArrayList<String> cleanSplittedContent = cleanElements(pageContent.split("\n"));
-
-        List<String> wordsList = new ArrayList<>();
-        for(String textPart : cleanSplittedContent){
-            for(String part : textPart.split(" ")){
-                if (part.isEmpty() || !part.matches("[А-я]+")){
-                    continue;
-                }
-                wordsList.add(part);
-            }
-        }
-        HashMap<String, String> normalForm;
-        LemmFactory lemmFactory = new LemmFactory(wordsList.toArray(String[]::new));
-        normalForm = (HashMap<String, String>) lemmFactory.getLemmsToRelevantPageLoader();
-
-        for (String textPart : cleanSplittedContent){
-            String tempTextPart = textPart;
-            for(Map.Entry<String, String> wordFromCleanPage : normalForm.entrySet()){
-                if (lemmasHashFromDB.containsKey(wordFromCleanPage.getValue()) && textPart.contains(wordFromCleanPage.getKey())){
-                    tempTextPart = tempTextPart.replaceAll( "\\b" + wordFromCleanPage.getKey() + "\\b", "<b>" + wordFromCleanPage.getKey() + "</b>").replaceAll("\"", "'") + " ";
-                }
-            }
-            result.append((textPart.equals(tempTextPart)) ? "" : tempTextPart);
-            }
-        return result.toString();
-    }
-
-    private ArrayList<String> cleanElements(String[] elements){
-        ArrayList<String> cleanElementsList = new ArrayList<>();
-        for(String element : elements){
-            String tempElement = element.replaceAll("&nbsp;", " ").replaceAll("(<.*?>|<!--.*?-->|/\\*.*?\\*/|[^А-я\\sA-z0-9.,!:;])", "").replaceAll("\\s{2,}", " ").strip();
-            if(tempElement.matches(".*[А-я]+.*")){
-                cleanElementsList.add(tempElement);
-            }
-        }
-        return cleanElementsList;
     }
 
     public List<FoundPage> getRelevantPages() {
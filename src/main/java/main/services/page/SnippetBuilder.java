@@ -0,0 +1,157 @@
+package main.services.page;
+
+import main.services.lemma.LemmFactory;
+import main.services.lemma.WordScanner;
+
+import java.util.*;
+
+// Builds a snippet of at most maxLength characters around the densest group of found
+// words: the window with the most different query lemmas, then with the most words.
+// Text is walked once, found words are highlighted while the window is copied.
+public class SnippetBuilder {
+
+    private final int maxLength;
+
+    public SnippetBuilder(int maxLength) {
+        this.maxLength = Math.max(1, maxLength);
+    }
+
+    public static Map<String, int[]> findLemmaOffsets(String text, Set<String> lemmas) {
+        Map<String, List<Integer>> offsets = new HashMap<>();
+        WordScanner.scan(text, (word, start) -> LemmFactory.forEachLemm(word, lemma -> {
+            if (lemmas.contains(lemma)) {
+                List<Integer> lemmaOffsets = offsets.computeIfAbsent(lemma, key -> new ArrayList<>());
+                if (lemmaOffsets.isEmpty() || lemmaOffsets.get(lemmaOffsets.size() - 1) != start) {
+                    lemmaOffsets.add(start);
+                }
+            }
+        }));
+        Map<String, int[]> result = new HashMap<>();
+        offsets.forEach((lemma, lemmaOffsets) -> result.put(lemma, lemmaOffsets.stream().mapToInt(Integer::intValue).toArray()));
+        return result;
+    }
+
+    public String build(String text, Map<String, int[]> lemmaOffsets) {
+        long[] matches = getMatches(text, lemmaOffsets);
+        if (matches.length == 0) {
+            int end = text.length() <= maxLength ? text.length() : getWindowEnd(text, maxLength, 0);
+            StringBuilder result = new StringBuilder();
+            appendText(result, text, 0, end);
+            return end < text.length() ? result.append("...").toString() : result.toString();
+        }
+
+        int[] lemmaCounts = new int[lemmaOffsets.size()];
+        int distinct = 0;
+        int bestLeft = 0;
+        int bestRight = 0;
+        int bestDistinct = 0;
+        int left = 0;
+        for (int right = 0; right < matches.length; right++) {
+            if (lemmaCounts[getLemmaIndex(matches[right])]++ == 0) {
+                distinct++;
+            }
+            int rightEnd = PageText.getWordEnd(text, getStart(matches[right]));
+            while (left < right && rightEnd - getStart(matches[left]) > maxLength) {
+                if (--lemmaCounts[getLemmaIndex(matches[left++])] == 0) {
+                    distinct--;
+                }
+            }
+            if (distinct > bestDistinct || (distinct == bestDistinct && right - left > bestRight - bestLeft)) {
+                bestDistinct = distinct;
+                bestLeft = left;
+                bestRight = right;
+            }
+        }
+
+        int firstStart = getStart(matches[bestLeft]);
+        int lastEnd = PageText.getWordEnd(text, getStart(matches[bestRight]));
+        // A single word longer than the snippet is cut at its end, never at its start.
+        int start = Math.max(0, firstStart - Math.max(0, maxLength - (lastEnd - firstStart)) / 2);
+        int end = Math.min(text.length(), start + maxLength);
+        start = Math.max(0, Math.min(start, end - maxLength));
+        start = getWindowStart(text, start, firstStart);
+        end = getWindowEnd(text, end, lastEnd);
+
+        StringBuilder result = new StringBuilder();
+        if (start > 0) {
+            result.append("...");
+        }
+        int written = start;
+        for (long match : matches) {
+            int wordStart = getStart(match);
+            if (wordStart < written || wordStart >= end) {
+                continue;
+            }
+            int wordEnd = Math.min(end, PageText.getWordEnd(text, wordStart));
+            appendText(result, text, written, wordStart);
+            result.append("<b>");
+            appendText(result, text, wordStart, wordEnd);
+            result.append("</b>");
+            written = wordEnd;
+        }
+        appendText(result, text, written, end);
+        if (end < text.length()) {
+            result.append("...");
+        }
+        return result.toString();
+    }
+
+    // Matches are packed as word start in the high half and lemma number in the low
+    // half, so sorting them orders the words by position.
+    private static long[] getMatches(String text, Map<String, int[]> lemmaOffsets) {
+        int count = 0;
+        for (int[] offsets : lemmaOffsets.values()) {
+            count += offsets.length;
+        }
+        long[] matches = new long[count];
+        int size = 0;
+        int lemmaIndex = 0;
+        for (int[] offsets : lemmaOffsets.values()) {
+            for (int offset : offsets) {
+                if (offset < text.length()) {
+                    matches[size++] = ((long) offset << 32) | lemmaIndex;
+                }
+            }
+            lemmaIndex++;
+        }
+        matches = Arrays.copyOf(matches, size);
+        Arrays.sort(matches);
+        return matches;
+    }
+
+    private static int getStart(long match) {
+        return (int) (match >>> 32);
+    }
+
+    private static int getLemmaIndex(long match) {
+        return (int) match;
+    }
+
+    private static int getWindowStart(String text, int start, int firstWordStart) {
+        if (start == 0) {
+            return 0;
+        }
+        int space = text.indexOf(' ', start);
+        return space < 0 || space >= firstWordStart ? start : space + 1;
+    }
+
+    private static int getWindowEnd(String text, int end, int lastWordEnd) {
+        if (end >= text.length()) {
+            return text.length();
+        }
+        int space = text.lastIndexOf(' ', end);
+        return space <= lastWordEnd ? end : space;
+    }
+
+    private static void appendText(StringBuilder result, String text, int from, int to) {
+        for (int position = from; position < to; position++) {
+            char symbol = text.charAt(position);
+            switch (symbol) {
+                case '<': result.append("&lt;"); break;
+                case '>': result.append("&gt;"); break;
+                case '&': result.append("&amp;"); break;
+                default: result.append(symbol);
+            }
+        }
+    }
+}
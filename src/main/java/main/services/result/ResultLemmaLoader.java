@@ -2,6 +2,7 @@ package main.services.result;
 
 import lombok.Getter;
 import main.data.model.Lemma;
+import main.services.lemma.LemmaRankMap;
 
 import java.util.*;
 
@@ -10,18 +11,18 @@ public class ResultLemmaLoader {
     @Getter
     private HashMap<String, Lemma> lemmaResultToDB;
 
-    public ResultLemmaLoader(Collection<TreeMap<Lemma, Float>> lemmasResult) {
-        this.lemmaResultToDB = setResultToDB(lemmasResult);
+    public ResultLemmaLoader(Collection<LemmaRankMap> lemmasResult, int siteId) {
+        this.lemmaResultToDB = setResultToDB(lemmasResult, siteId);
     }
 
 
-    private HashMap<String, Lemma> setResultToDB(Collection<TreeMap<Lemma, Float>> tempTreeMap){
+    private HashMap<String, Lemma> setResultToDB(Collection<LemmaRankMap> lemmasResult, int siteId){
         HashMap<String, Lemma> tempLemmasHash = new HashMap<>();
-        tempTreeMap.forEach(collect -> collect.forEach((lemma, rank) -> {
-            if(tempLemmasHash.containsKey(lemma.getLemma())){
-                tempLemmasHash.get(lemma.getLemma()).increaseFrequency();
+        lemmasResult.forEach(collect -> collect.forEach((lemma, rank) -> {
+            if(tempLemmasHash.containsKey(lemma)){
+                tempLemmasHash.get(lemma).increaseFrequency();
             } else {
-                tempLemmasHash.put(lemma.getLemma(), lemma);
+                tempLemmasHash.put(lemma, new Lemma(lemma, 1, siteId));
             }
         }));
         return tempLemmasHash;
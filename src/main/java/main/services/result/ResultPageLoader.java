@@ -15,7 +15,7 @@ public class ResultPageLoader {
     public List<Page> getCorrectlyResponsivePages(Collection<Page> resultPages){
         List<Page> resultList = new ArrayList<>();
         resultPages.forEach(page -> {
-            if(!(page.getAnswerCode() >= 400 && page.getAnswerCode() <= 417) && !(page.getAnswerCode() >= 500 && page.getAnswerCode() <= 505)){
+            if(isCorrectlyResponsive(page)){
                 resultList.add(page);
             }
         });
@@ -23,9 +23,13 @@ public class ResultPageLoader {
     }
 
     public Page getCorrectlyResponsivePage(Page page){
-        if(!(page.getAnswerCode() >= 400 && page.getAnswerCode() <= 417) && !(page.getAnswerCode() >= 500 && page.getAnswerCode() <= 505)){
+        if(isCorrectlyResponsive(page)){
             return page;
         }
         return new Page();
     }
+
+    public boolean isCorrectlyResponsive(Page page){
+        return !(page.getAnswerCode() >= 400 && page.getAnswerCode() <= 417) && !(page.getAnswerCode() >= 500 && page.getAnswerCode() <= 505);
+    }
 }
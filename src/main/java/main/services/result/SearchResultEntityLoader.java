@@ -1,20 +1,19 @@
 package main.services.result;
 
-import lombok.extern.slf4j.Slf4j;
 import main.data.dto.FoundPage;
+import main.data.dto.SearchResponse;
+import main.data.dto.SearchResultItem;
 import main.data.model.Site;
 import main.data.repository.SiteRepository;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
 
-@Slf4j
+// The response is written by the JSON message converter straight to the output stream.
 public class SearchResultEntityLoader {
 
     private HashMap<Integer, Site> sites;
@@ -29,30 +28,13 @@ public class SearchResultEntityLoader {
         return resultSites;
     }
 
-    public ResponseEntity<JSONObject> getSearchResultJson(List<FoundPage> foundPages){
-        StringBuilder result = new StringBuilder();
-        result.append("{\n\"result\": true,\n \"count\": ").append(foundPages.size()).append(",\n \"data\": [\n");
-        for (int counter = 0; counter < foundPages.size(); counter++){
-            result.append("{\n \"site\": \"").append(this.sites.get(foundPages.get(counter).getSiteId()).getUrl()).append("\",\n");
-            result.append("\"siteName\": \"").append(this.sites.get(foundPages.get(counter).getSiteId()).getName()).append("\",\n");
-            result.append("\"uri\": \"").append(foundPages.get(counter).getUri()).append("\",\n");
-            result.append("\"title\": \"").append(foundPages.get(counter).getTitle()).append("\",\n");
-            result.append("\"snippet\": \"").append(foundPages.get(counter).getSnippet()).append("\",\n");
-            result.append("\"relevance\": \"").append(foundPages.get(counter).getRelevance()).append("\"\n}");
-            if(counter != foundPages.size() - 1){
-                result.append(",\n");
-            }
+    public ResponseEntity<SearchResponse> getSearchResultJson(List<FoundPage> foundPages, int foundPagesCount, String cursor){
+        List<SearchResultItem> data = new ArrayList<>(foundPages.size());
+        for (FoundPage foundPage : foundPages) {
+            Site site = sites.get(foundPage.getSiteId());
+            data.add(new SearchResultItem(site.getUrl(), site.getName(), foundPage.getUri(),
+                    foundPage.getTitle(), foundPage.getSnippet(), foundPage.getRelevance()));
         }
-        result.append("\n]\n}");
-
-        JSONParser parser = new JSONParser();
-        JSONObject resultJson = new JSONObject();
-
-        try {
-            resultJson = (JSONObject) parser.parse(result.toString());
-        } catch (ParseException e) {
-            log.info("Could not parse JSON result", e);
-        }
-        return new ResponseEntity<>(resultJson,HttpStatus.OK);
+        return new ResponseEntity<>(new SearchResponse(true, foundPagesCount, cursor, data), HttpStatus.OK);
     }
 }
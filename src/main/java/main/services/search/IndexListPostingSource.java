@@ -0,0 +1,42 @@
+package main.services.search;
+
+import main.data.model.Index;
+import main.data.model.Lemma;
+
+import java.util.*;
+
+public class IndexListPostingSource implements PostingSource {
+
+    private final Map<Integer, List<Index>> indexesByLemmaId = new HashMap<>();
+
+    public IndexListPostingSource(Collection<Index> indexes) {
+        indexes.forEach(index -> indexesByLemmaId.computeIfAbsent(index.getLemmaId(), lemmaId -> new ArrayList<>()).add(index));
+        indexesByLemmaId.values().forEach(lemmaIndexes -> lemmaIndexes.sort(Comparator.comparingInt(Index::getPageId)));
+    }
+
+    @Override
+    public int[] getPageIds(Lemma lemma) {
+        List<Index> lemmaIndexes = indexesByLemmaId.getOrDefault(lemma.getId(), Collections.emptyList());
+        int[] pageIds = new int[lemmaIndexes.size()];
+        for (int posting = 0; posting < pageIds.length; posting++) {
+            pageIds[posting] = lemmaIndexes.get(posting).getPageId();
+        }
+        return pageIds;
+    }
+
+    @Override
+    public List<Index> getIndexes(Lemma lemma, int[] pageIds) {
+        List<Index> result = new ArrayList<>();
+        int position = 0;
+        for (Index index : indexesByLemmaId.getOrDefault(lemma.getId(), Collections.emptyList())) {
+            position = PostingIntersection.gallop(pageIds, position, index.getPageId());
+            if (position == pageIds.length) {
+                break;
+            }
+            if (pageIds[position] == index.getPageId()) {
+                result.add(index);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,121 @@
+package main.services.search;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import main.data.model.Index;
+
+import java.util.List;
+import java.util.Map;
+
+// Scores found pages by the sum of their lemma ranks and keeps only the best ones
+// in a bounded min-heap, so pages outside the requested range are never loaded.
+// Pages with equal relevance are ordered by id.
+public class PageRanker {
+
+    private final int[] heapPageIds;
+    private final float[] heapScores;
+    private int heapSize;
+    private float maxScore;
+    private int foundPagesCount;
+
+    public PageRanker(Map<Integer, List<Index>> foundPages, int topCount) {
+        int capacity = Math.max(0, Math.min(topCount, foundPages.size()));
+        this.heapPageIds = new int[capacity];
+        this.heapScores = new float[capacity];
+        foundPages.forEach((pageId, indexes) -> {
+            float score = 0;
+            for (Index index : indexes) {
+                score += index.getRank();
+            }
+            offer(pageId, score);
+        });
+    }
+
+    public int getFoundPagesCount() {
+        return foundPagesCount;
+    }
+
+    // Best pages first; the heap is emptied by this call.
+    public RankedPage[] getTopPages() {
+        RankedPage[] topPages = new RankedPage[heapSize];
+        for (int position = topPages.length - 1; position >= 0; position--) {
+            float score = heapScores[0];
+            topPages[position] = new RankedPage(heapPageIds[0], maxScore == 0 ? 0 : score / maxScore);
+            heapSize--;
+            heapPageIds[0] = heapPageIds[heapSize];
+            heapScores[0] = heapScores[heapSize];
+            siftDown(0);
+        }
+        return topPages;
+    }
+
+    private void offer(int pageId, float score) {
+        foundPagesCount++;
+        maxScore = Math.max(maxScore, score);
+        if (heapPageIds.length == 0) {
+            return;
+        }
+        if (heapSize < heapPageIds.length) {
+            heapPageIds[heapSize] = pageId;
+            heapScores[heapSize] = score;
+            siftUp(heapSize++);
+        } else if (isWorse(heapPageIds[0], heapScores[0], pageId, score)) {
+            heapPageIds[0] = pageId;
+            heapScores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!isWorse(heapPageIds[position], heapScores[position], heapPageIds[parent], heapScores[parent])) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int left = position * 2 + 1;
+            if (left >= heapSize) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < heapSize && isWorse(heapPageIds[right], heapScores[right], heapPageIds[left], heapScores[left])) {
+                worst = right;
+            }
+            if (!isWorse(heapPageIds[worst], heapScores[worst], heapPageIds[position], heapScores[position])) {
+                return;
+            }
+            swap(position, worst);
+            position = worst;
+        }
+    }
+
+    private static boolean isWorse(int pageId, float score, int otherPageId, float otherScore) {
+        int compareScore = Float.compare(score, otherScore);
+        return compareScore != 0 ? compareScore < 0 : pageId > otherPageId;
+    }
+
+    private void swap(int first, int second) {
+        int pageId = heapPageIds[first];
+        heapPageIds[first] = heapPageIds[second];
+        heapPageIds[second] = pageId;
+        float score = heapScores[first];
+        heapScores[first] = heapScores[second];
+        heapScores[second] = score;
+    }
+
+    @AllArgsConstructor(access = AccessLevel.PACKAGE)
+    @Getter
+    public static class RankedPage {
+
+        private final int pageId;
+        private final float relevance;
+    }
+}
@@ -0,0 +1,81 @@
+package main.services.search;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Intersection of sorted page id lists. Lists are taken from the shortest one and
+// every element of the running result is looked up in the next list by galloping,
+// so the cost depends on the rarest term rather than on the most frequent one.
+public class PostingIntersection {
+
+    private static final int[] EMPTY = new int[0];
+
+    private PostingIntersection() {
+    }
+
+    public static int[] intersectAll(List<int[]> postings) {
+        if (postings.isEmpty()) {
+            return EMPTY;
+        }
+        int[][] ordered = postings.toArray(new int[0][]);
+        Arrays.sort(ordered, Comparator.comparingInt(pageIds -> pageIds.length));
+        int[] result = ordered[0];
+        for (int term = 1; term < ordered.length && result.length > 0; term++) {
+            result = intersect(result, ordered[term]);
+        }
+        return result;
+    }
+
+    public static int[] intersect(int[] smaller, int[] larger) {
+        int[] result = new int[Math.min(smaller.length, larger.length)];
+        int size = 0;
+        int position = 0;
+        for (int pageId : smaller) {
+            position = gallop(larger, position, pageId);
+            if (position == larger.length) {
+                break;
+            }
+            if (larger[position] == pageId) {
+                result[size++] = pageId;
+                position++;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    public static int[] union(List<int[]> postings) {
+        if (postings.size() == 1) {
+            return postings.get(0);
+        }
+        int length = 0;
+        for (int[] pageIds : postings) {
+            length += pageIds.length;
+        }
+        int[] result = new int[length];
+        int size = 0;
+        for (int[] pageIds : postings) {
+            System.arraycopy(pageIds, 0, result, size, pageIds.length);
+            size += pageIds.length;
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    // Returns the first position from "from" whose value is not less than the target.
+    public static int gallop(int[] pageIds, int from, int target) {
+        if (from >= pageIds.length || pageIds[from] >= target) {
+            return from;
+        }
+        int low = from;
+        int step = 1;
+        int high = from + step;
+        while (high < pageIds.length && pageIds[high] < target) {
+            low = high;
+            step <<= 1;
+            high = from + step;
+        }
+        int index = Arrays.binarySearch(pageIds, low + 1, Math.min(high, pageIds.length - 1) + 1, target);
+        return index >= 0 ? index : -index - 1;
+    }
+}
@@ -0,0 +1,13 @@
+package main.services.search;
+
+import main.data.model.Index;
+import main.data.model.Lemma;
+
+import java.util.List;
+
+public interface PostingSource {
+
+    int[] getPageIds(Lemma lemma);
+
+    List<Index> getIndexes(Lemma lemma, int[] pageIds);
+}
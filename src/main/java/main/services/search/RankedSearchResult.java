@@ -0,0 +1,64 @@
+package main.services.search;
+
+import main.data.model.Lemma;
+
+import java.util.Collections;
+import java.util.List;
+
+// Best pages of a search in rank order with their relative relevance. Only the
+// first ranked pages are kept, foundPagesCount is the number of all found pages.
+public class RankedSearchResult {
+
+    private static final int OBJECT_OVERHEAD_BYTES = 64;
+    private static final int LEMMA_BYTES = 96;
+
+    private final long generation;
+    private final List<Lemma> searchLemmas;
+    private final int foundPagesCount;
+    private final int[] pageIds;
+    private final float[] relevances;
+
+    public RankedSearchResult(long generation, List<Lemma> searchLemmas, int foundPagesCount, PageRanker.RankedPage[] topPages) {
+        this.generation = generation;
+        this.searchLemmas = Collections.unmodifiableList(searchLemmas);
+        this.foundPagesCount = foundPagesCount;
+        this.pageIds = new int[topPages.length];
+        this.relevances = new float[topPages.length];
+        for (int position = 0; position < topPages.length; position++) {
+            pageIds[position] = topPages[position].getPageId();
+            relevances[position] = topPages[position].getRelevance();
+        }
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public List<Lemma> getSearchLemmas() {
+        return searchLemmas;
+    }
+
+    public int getFoundPagesCount() {
+        return foundPagesCount;
+    }
+
+    public int getRankedPagesCount() {
+        return pageIds.length;
+    }
+
+    public int getPageId(int position) {
+        return pageIds[position];
+    }
+
+    public float getRelevance(int position) {
+        return relevances[position];
+    }
+
+    public boolean covers(int pagesCount) {
+        return pageIds.length >= Math.min(pagesCount, foundPagesCount);
+    }
+
+    public long getMemoryFootprintBytes() {
+        return OBJECT_OVERHEAD_BYTES + (long) LEMMA_BYTES * searchLemmas.size() + 8L * pageIds.length;
+    }
+}
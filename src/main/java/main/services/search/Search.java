@@ -2,25 +2,29 @@ package main.services.search;
 
 import main.data.model.Index;
 import main.data.model.Lemma;
-import main.services.index.IndexLoader;
 import main.services.lemma.LemmFactory;
 import main.services.lemma.LemmaSortByFreqAndName;
+import main.services.lemma.WordScanner;
 
 import java.util.*;
 public class Search {
 
-    private String searchPhrase;
-    private int lemmasCountFromSearchPhrase;
+    private Set<String> queryLemmas;
     private Collection<Lemma> lemmasFromDB;
-    private List<Index> indexFromDB;
+    private PostingSource postingSource;
     private List<Lemma> searchLemmas;
     private HashMap<Integer, List<Index>> foundPages;
 
 
-    public Search(String searchPhrase, Collection<Lemma> lemmasFromDB, ArrayList<Index> indexFromDB) {
-        this.searchPhrase = searchPhrase;
+    public Search(Set<String> queryLemmas, Collection<Lemma> lemmasFromDB, ArrayList<Index> indexFromDB) {
+        this(queryLemmas, lemmasFromDB, new IndexListPostingSource(indexFromDB));
+    }
+
+    // The query lemmas are the ones of getQueryLemmas, computed once by the caller.
+    public Search(Set<String> queryLemmas, Collection<Lemma> lemmasFromDB, PostingSource postingSource) {
+        this.queryLemmas = queryLemmas;
         this.lemmasFromDB = lemmasFromDB;
-        this.indexFromDB = indexFromDB;
+        this.postingSource = postingSource;
 
         this.searchLemmas = separateLemmas();
         this.foundPages = searchRelevantPages(searchLemmas);
@@ -34,15 +38,15 @@ public class Search {
         return searchLemmas;
     }
 
-    private List<Lemma> separateLemmas(){
-        String[] phraseWords = cleanSearchPhrase(searchPhrase).split(" ");
+    public static Set<String> getQueryLemmas(String searchPhrase){
+        String[] phraseWords = WordScanner.scan(searchPhrase).toArray(String[]::new);
+        return new HashSet<>(new LemmFactory(phraseWords).getLemms());
+    }
 
-        HashSet<String> lemmas = new HashSet<>();
-        new LemmFactory(phraseWords).getLemms().forEach(lemma -> lemmas.add(lemma));
-        this.lemmasCountFromSearchPhrase = lemmas.size();
+    private List<Lemma> separateLemmas(){
         List<Lemma> lemmaForSearch = new ArrayList<>();
         lemmasFromDB.forEach(lemma -> {
-            if(lemmas.contains(lemma.getLemma())){
+            if(queryLemmas.contains(lemma.getLemma())){
                lemmaForSearch.add(lemma);
             }
         });
@@ -51,40 +55,30 @@ public class Search {
         return lemmaForSearch;
     }
 
-    private String cleanSearchPhrase(String searchPhrase){
-        return searchPhrase.replaceAll("\n", "").replaceAll("[^А-я\\s]","").replaceAll("\\s{2,}", " ").strip().toLowerCase();
-    }
-
+    // A page is found when it contains every lemma of the phrase. The same lemma on
+    // different sites has its own id, so its page lists are joined before intersecting.
     private HashMap<Integer, List<Index>> searchRelevantPages(List<Lemma> searchLemmas){
-        if(searchLemmas.isEmpty()){
-            return new HashMap<>();
-        }
-        ArrayList<Index> foundIndexes = new ArrayList<>();
-        HashMap<Integer, List<Index>> tempRelevantPages = new HashMap<>();
-        IndexLoader indexLoader = new IndexLoader();
-        foundIndexes.addAll(indexLoader.loadIndexFromListByLemmas(indexFromDB, searchLemmas));
-
-        if(foundIndexes.isEmpty()){
-            return new HashMap<>();
+        HashMap<Integer, List<Index>> resultPages = new HashMap<>();
+        Map<String, List<int[]>> pageIdsByLemma = new HashMap<>();
+        for (Lemma lemma : searchLemmas) {
+            pageIdsByLemma.computeIfAbsent(lemma.getLemma(), key -> new ArrayList<>()).add(postingSource.getPageIds(lemma));
         }
-        for(Index foundIndex : foundIndexes) {
-        if(tempRelevantPages.containsKey(foundIndex.getPageId())){
-            tempRelevantPages.get(foundIndex.getPageId()).add(foundIndex);
-            continue;
+        if(searchLemmas.isEmpty() || pageIdsByLemma.size() != queryLemmas.size()){
+            return resultPages;
         }
-        ArrayList<Index> tempIndex = new ArrayList<>();
-        tempIndex.add(foundIndex);
-        tempRelevantPages.put(foundIndex.getPageId(),tempIndex);
+
+        List<int[]> postings = new ArrayList<>();
+        pageIdsByLemma.values().forEach(sitePageIds -> postings.add(PostingIntersection.union(sitePageIds)));
+        int[] foundPageIds = PostingIntersection.intersectAll(postings);
+        if(foundPageIds.length == 0){
+            return resultPages;
         }
-        HashSet<Integer> searchSites = new HashSet<>();
-        searchLemmas.forEach(lemma -> searchSites.add(lemma.getSiteId()));
 
-        HashMap<Integer, List<Index>> resultPages = new HashMap<>();
-        tempRelevantPages.forEach((page, indexes) ->{
-            if(indexes.size() == lemmasCountFromSearchPhrase){
-                resultPages.put(page, indexes);
+        for (Lemma lemma : searchLemmas) {
+            for (Index foundIndex : postingSource.getIndexes(lemma, foundPageIds)) {
+                resultPages.computeIfAbsent(foundIndex.getPageId(), pageId -> new ArrayList<>()).add(foundIndex);
             }
-        });
+        }
         return resultPages;
     }
 
@@ -0,0 +1,43 @@
+package main.services.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Position of the next page in a cached ranked result. It is sent to the client as
+// an opaque string and is valid while the index generation stays the same.
+@AllArgsConstructor
+@Getter
+public class SearchCursor {
+
+    private static final String SEPARATOR = "\n";
+
+    private final long generation;
+    private final String cacheKey;
+    private final int offset;
+    private final int limit;
+
+    public String encode() {
+        String cursor = generation + SEPARATOR + offset + SEPARATOR + limit + SEPARATOR + cacheKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, 4);
+            if (parts.length != 4) {
+                return null;
+            }
+            int offset = Integer.parseInt(parts[1]);
+            int limit = Integer.parseInt(parts[2]);
+            if (offset < 0 || limit <= 0) {
+                return null;
+            }
+            return new SearchCursor(Long.parseLong(parts[0]), parts[3], offset, limit);
+        } catch (IllegalArgumentException exception) {
+            return null;
+        }
+    }
+}
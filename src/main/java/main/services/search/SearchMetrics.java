@@ -0,0 +1,47 @@
+package main.services.search;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Records the latency of every search and of its stages with percentiles, and logs
+// the stage breakdown of requests slower than search.slow-query-threshold.
+@Slf4j
+@Component
+public class SearchMetrics {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry registry;
+    private final long slowQueryThresholdNanos;
+
+    @Autowired
+    public SearchMetrics(MeterRegistry registry, @Value("${search.slow-query-threshold}") long slowQueryThresholdMillis) {
+        this.registry = registry;
+        this.slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdMillis);
+    }
+
+    public void record(SearchTrace trace) {
+        trace.finish();
+        String cached = String.valueOf(trace.isCached());
+        timer("search.latency", "cached", cached).record(trace.getTotalNanos(), TimeUnit.NANOSECONDS);
+        trace.getStageNanos().forEach((stage, nanos) ->
+                timer("search.stage.latency", "stage", stage).record(nanos, TimeUnit.NANOSECONDS));
+        if (slowQueryThresholdNanos > 0 && trace.getTotalNanos() >= slowQueryThresholdNanos) {
+            log.warn("Slow search: " + trace);
+        }
+    }
+
+    private Timer timer(String name, String tag, String value) {
+        return Timer.builder(name)
+                .tag(tag, value)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
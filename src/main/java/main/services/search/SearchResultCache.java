@@ -0,0 +1,126 @@
+package main.services.search;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import main.data.dto.SearchCacheStats;
+import main.services.index.IndexGeneration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+// Ranked results of recent searches keyed by the sorted query lemmas and searched
+// sites. The whole cache is dropped when the index generation changes, and the least
+// recently used results are evicted to keep the estimated size under the limit.
+@Component
+public class SearchResultCache {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    private final IndexGeneration indexGeneration;
+    private final long maxMemoryBytes;
+    private final int rankedPagesCount;
+    private final LinkedHashMap<String, RankedSearchResult> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private long memoryFootprint;
+    private long generation;
+
+    @Autowired
+    public SearchResultCache(IndexGeneration indexGeneration,
+                             MeterRegistry registry,
+                             @Value("${search.cache.max-memory-bytes}") long maxMemoryBytes,
+                             @Value("${search.cache.ranked-pages}") int rankedPagesCount) {
+        this.indexGeneration = indexGeneration;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.rankedPagesCount = Math.max(1, rankedPagesCount);
+        FunctionCounter.builder("search.cache.hits", hits, LongAdder::sum).register(registry);
+        FunctionCounter.builder("search.cache.misses", misses, LongAdder::sum).register(registry);
+        FunctionCounter.builder("search.cache.evictions", evictions, LongAdder::sum).register(registry);
+        Gauge.builder("search.cache.memory", this, cache -> cache.getStats().getMemoryFootprintBytes())
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public static String getKey(Collection<String> queryLemmas, Collection<Integer> siteIds) {
+        StringBuilder key = new StringBuilder();
+        new TreeSet<>(siteIds).forEach(siteId -> key.append(siteId).append(','));
+        key.append('|');
+        new TreeSet<>(queryLemmas).forEach(lemma -> key.append(lemma).append(' '));
+        return key.toString();
+    }
+
+    public boolean isEnabled() {
+        return maxMemoryBytes > 0;
+    }
+
+    public int getRankedPagesCount() {
+        return rankedPagesCount;
+    }
+
+    // A result that has fewer ranked pages than asked for is a miss, it is ranked
+    // again with more pages and replaced.
+    public synchronized RankedSearchResult get(String key, int pagesCount) {
+        if (!isEnabled()) {
+            return null;
+        }
+        checkGeneration();
+        RankedSearchResult result = entries.get(key);
+        if (result == null || !result.covers(pagesCount)) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return result;
+    }
+
+    public synchronized void put(String key, RankedSearchResult result) {
+        if (!isEnabled()) {
+            return;
+        }
+        checkGeneration();
+        long size = estimateSize(key, result);
+        if (result.getGeneration() != generation || size > maxMemoryBytes) {
+            return;
+        }
+        RankedSearchResult previous = entries.put(key, result);
+        if (previous != null) {
+            memoryFootprint -= estimateSize(key, previous);
+        }
+        memoryFootprint += size;
+        Iterator<Map.Entry<String, RankedSearchResult>> eldest = entries.entrySet().iterator();
+        while (memoryFootprint > maxMemoryBytes && eldest.hasNext()) {
+            Map.Entry<String, RankedSearchResult> entry = eldest.next();
+            memoryFootprint -= estimateSize(entry.getKey(), entry.getValue());
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    public synchronized SearchCacheStats getStats() {
+        return new SearchCacheStats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(),
+                entries.size(), memoryFootprint);
+    }
+
+    private void checkGeneration() {
+        long currentGeneration = indexGeneration.get();
+        if (currentGeneration != generation) {
+            if (!entries.isEmpty()) {
+                invalidations.increment();
+            }
+            entries.clear();
+            memoryFootprint = 0;
+            generation = currentGeneration;
+        }
+    }
+
+    private static long estimateSize(String key, RankedSearchResult result) {
+        return ENTRY_OVERHEAD_BYTES + STRING_OVERHEAD_BYTES + 2L * key.length() + result.getMemoryFootprintBytes();
+    }
+}
@@ -1,6 +1,7 @@
 package main.services.search;
 
 import lombok.NoArgsConstructor;
+import main.data.dto.SearchResponse;
 import main.data.model.Index;
 import main.data.model.Lemma;
 import main.data.model.Page;
@@ -8,7 +9,10 @@ import main.data.model.Site;
 import main.data.repository.PageRepository;
 import main.data.repository.SiteRepository;
 import main.services.ResponseEntityLoader;
+import main.services.index.IndexGeneration;
 import main.services.index.IndexLoader;
+import main.services.index.IndexingProgress;
+import main.services.index.InvertedIndex;
 import main.services.lemma.LemmasLoader;
 import main.services.page.PageLoader;
 import main.services.page.RelevantPageLoader;
@@ -16,16 +20,18 @@ import main.services.result.SearchResultEntityLoader;
 import main.services.site.SiteConditionsChanger;
 import main.services.site.SiteStatusChecker;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.function.Supplier;
 
 @Service
 @NoArgsConstructor
 public class SearchServices {
+    private static final int DEFAULT_LIMIT = 20;
+
     private SiteRepository siteRepository;
     private  PageRepository pageRepository;
     private ResponseEntityLoader responseEntityLoader;
@@ -34,9 +40,15 @@ public class SearchServices {
     private IndexLoader indexLoader;
     private LemmasLoader lemmasLoader;
     private  PageLoader pageLoader;
+    private InvertedIndex invertedIndex;
+    private SearchResultCache searchResultCache;
+    private IndexGeneration indexGeneration;
+    private IndexingProgress indexingProgress;
+    private SearchMetrics searchMetrics;
+    private int snippetMaxLength;
 
     @Autowired
-    public SearchServices(SiteRepository siteRepository, PageRepository pageRepository, ResponseEntityLoader responseEntityLoader, SiteConditionsChanger siteConditionsChanger, SiteStatusChecker siteStatusChecker, IndexLoader indexLoader, LemmasLoader lemmasLoader, PageLoader pageLoader) {
+    public SearchServices(SiteRepository siteRepository, PageRepository pageRepository, ResponseEntityLoader responseEntityLoader, SiteConditionsChanger siteConditionsChanger, SiteStatusChecker siteStatusChecker, IndexLoader indexLoader, LemmasLoader lemmasLoader, PageLoader pageLoader, InvertedIndex invertedIndex, SearchResultCache searchResultCache, IndexGeneration indexGeneration, IndexingProgress indexingProgress, SearchMetrics searchMetrics, @Value("${search.snippet-max-length}") int snippetMaxLength) {
         this.siteRepository = siteRepository;
         this.pageRepository = pageRepository;
         this.responseEntityLoader = responseEntityLoader;
@@ -45,72 +57,208 @@ public class SearchServices {
         this.indexLoader = indexLoader;
         this.lemmasLoader = lemmasLoader;
         this.pageLoader = pageLoader;
+        this.invertedIndex = invertedIndex;
+        this.searchResultCache = searchResultCache;
+        this.indexGeneration = indexGeneration;
+        this.indexingProgress = indexingProgress;
+        this.searchMetrics = searchMetrics;
+        this.snippetMaxLength = snippetMaxLength;
+    }
+
+
+    public ResponseEntity<?> getMatchesInSite(String site, String query, int offset, int limit){
+        SearchTrace trace = new SearchTrace(query);
+        try {
+            return findMatchesInSite(site, query, offset, limit, trace);
+        } finally {
+            searchMetrics.record(trace);
+        }
     }
 
+    public ResponseEntity<?> getMatchesInSites(String query, int offset, int limit){
+        SearchTrace trace = new SearchTrace(query);
+        try {
+            return findMatchesInSites(query, offset, limit, trace);
+        } finally {
+            searchMetrics.record(trace);
+        }
+    }
+
+    // The next pages of a cached result are sliced from its ranked list, the query is
+    // not analyzed again. When the result is gone the search is repeated from the query.
+    public ResponseEntity<?> getMatchesByCursor(String cursor, String site, String query){
+        SearchTrace trace = new SearchTrace(query);
+        try {
+            return findMatchesByCursor(cursor, site, query, trace);
+        } finally {
+            searchMetrics.record(trace);
+        }
+    }
 
-    public ResponseEntity<Map<String, Object>> getMatchesInSite(String site, String query){
+    private ResponseEntity<?> findMatchesInSite(String site, String query, int offset, int limit, SearchTrace trace){
         Site targetSite = new Site();
         siteConditionsChanger.cloneSiteFromDB(targetSite, site);
-        if(targetSite.getId() == 0){
+        boolean inMemory = invertedIndex.isReady();
+        boolean hasPages = targetSite.getId() != null && (inMemory
+                ? invertedIndex.containsSite(targetSite.getId())
+                : pageRepository.countBySiteId(targetSite.getId()) > 0);
+        trace.stage("site");
+        if(targetSite.getId() == null){
             return responseEntityLoader.getSiteNotFoundResponse();
         }
-
-        HashMap<Integer, Page> targetSitePages = new HashMap<>(pageLoader.loadSitePagesFromDB(targetSite.getId()));
-        if(targetSitePages.size() == 0){
+        if(!hasPages){
             return responseEntityLoader.getSiteIndexingOrEmptyPagesResponse(targetSite);
         }
+        if(inMemory){
+            return getMatchesFromInvertedIndex(query, List.of(targetSite.getId()), offset, limit, trace);
+        }
+        return getMatchesFromDB(query, List.of(targetSite.getId()), offset, limit, trace);
+    }
 
-        HashMap<Integer, Lemma> targetLemmas = new HashMap<>(lemmasLoader.loadSiteLemmasFromDBWithFreq(targetSite.getId(), pageRepository.count()));
-
-        if(targetLemmas.size() == 0){
-            return  responseEntityLoader.getSiteIndexingOrEmptyLemmasResponse(targetSite);
+    private ResponseEntity<?> findMatchesInSites(String query, int offset, int limit, SearchTrace trace){
+        boolean inMemory = invertedIndex.isReady();
+        List<Integer> indexedSiteIds = inMemory ? new ArrayList<>(invertedIndex.getSiteIds()) : siteStatusChecker.getIndexedSiteIds();
+        trace.stage("site");
+        if(indexedSiteIds.isEmpty()){
+            return responseEntityLoader.getIndexedSitesNotFoundResponse();
+        }
+        if(inMemory){
+            return getMatchesFromInvertedIndex(query, indexedSiteIds, offset, limit, trace);
         }
+        return getMatchesFromDB(query, indexedSiteIds, offset, limit, trace);
+    }
 
-        ArrayList<Index> indexesFromDB = new ArrayList<>(indexLoader.loadIndexFromDBByPageIdAndLemmas(targetSitePages.keySet(), targetLemmas.keySet()));
-        if(indexesFromDB.size() == 0){
-            return  responseEntityLoader.getSiteIndexingOrEmptyIndexesResponse(targetSite);
+    private ResponseEntity<?> findMatchesByCursor(String cursor, String site, String query, SearchTrace trace){
+        SearchCursor searchCursor = SearchCursor.decode(cursor);
+        if (searchCursor == null) {
+            return responseEntityLoader.getSearchCursorExpiredResponse();
         }
-        Search search = new Search(query, targetLemmas.values(), indexesFromDB);
-        if (search.getFoundPages().isEmpty()){
-            return responseEntityLoader.getSearchMatchesNotFoundResponse();
+        RankedSearchResult rankedResult = searchResultCache.get(searchCursor.getCacheKey(), searchCursor.getOffset() + searchCursor.getLimit());
+        trace.stage("cache");
+        if (rankedResult != null && rankedResult.getGeneration() == searchCursor.getGeneration()) {
+            trace.setCached(true);
+            trace.setLemmasCount((int) rankedResult.getSearchLemmas().stream().map(Lemma::getLemma).distinct().count());
+            return getResultPage(rankedResult, searchCursor.getCacheKey(), searchCursor.getOffset(), searchCursor.getLimit(), trace);
         }
-        ArrayList<Page> relevantPages = new ArrayList<>(pageLoader.loadPagesByIdFromTargetPages(targetSitePages, search.getFoundPages().keySet()));
+        if (query == null || query.isEmpty()) {
+            return responseEntityLoader.getSearchCursorExpiredResponse();
+        }
+        if (site != null && !site.isEmpty()) {
+            return findMatchesInSite(site, query, searchCursor.getOffset(), searchCursor.getLimit(), trace);
+        }
+        return findMatchesInSites(query, searchCursor.getOffset(), searchCursor.getLimit(), trace);
+    }
 
-        ArrayList<Lemma> relevantLemmas = new ArrayList<>(search.getSearchLemmas());
+    private ResponseEntity<?> getMatchesFromInvertedIndex(String query, Collection<Integer> siteIds, int offset, int limit, SearchTrace trace){
+        Set<String> queryLemmas = Search.getQueryLemmas(query);
+        trace.setLemmasCount(queryLemmas.size());
+        trace.stage("analyze");
+        return getSearchResult(SearchResultCache.getKey(queryLemmas, siteIds), offset, limit, trace, () -> {
+            long pagesCount = invertedIndex.getPagesCount();
+            List<Lemma> targetLemmas = invertedIndex.findLemmas(siteIds, queryLemmas);
+            targetLemmas.removeIf(lemma -> lemmasLoader.lemmaFrequencyIsOften(lemma, pagesCount));
+            trace.stage("lemmas");
+            Search search = new Search(queryLemmas, targetLemmas, invertedIndex);
+            trace.stage("search");
+            return search;
+        });
+    }
 
-        RelevantPageLoader relevantPageLoader = new RelevantPageLoader(relevantPages, relevantLemmas, search.getFoundPages());
-        if (relevantPageLoader.getRelevantPages().isEmpty()){
-            return  responseEntityLoader.getRelevantPagesNotFoundResponse();
-        }
-        SearchResultEntityLoader searchResultEntityLoader = new SearchResultEntityLoader(siteRepository);
-        return searchResultEntityLoader.getSearchResultJson(relevantPageLoader.getRelevantPages());
+    // Only the lemmas of the query are read, and the index rows are read lemma by lemma
+    // from the rarest one, each time only for the pages that contain all previous lemmas.
+    // The database changes while a site is indexed, so such results are not cached.
+    private ResponseEntity<?> getMatchesFromDB(String query, Collection<Integer> siteIds, int offset, int limit, SearchTrace trace){
+        Set<String> queryLemmas = Search.getQueryLemmas(query);
+        trace.setLemmasCount(queryLemmas.size());
+        trace.stage("analyze");
+        String cacheKey = indexingProgress.isIndexing() ? null : SearchResultCache.getKey(queryLemmas, siteIds);
+        return getSearchResult(cacheKey, offset, limit, trace, () -> {
+            List<Lemma> targetLemmas = lemmasLoader.loadLemmasFromDBByQuery(queryLemmas, siteIds, pageRepository.count());
+            trace.stage("lemmas");
+            if(targetLemmas.isEmpty()){
+                return null;
+            }
+            ArrayList<Index> indexes = indexLoader.loadIndexFromDBByRarestLemmas(targetLemmas, queryLemmas.size());
+            trace.stage("indexes");
+            Search search = new Search(queryLemmas, targetLemmas, indexes);
+            trace.stage("search");
+            return search;
+        });
     }
 
-    public ResponseEntity<Map<String, Object>> getMatchesInSites(String query){
-        if(!siteStatusChecker.indexedSitesExist()){
-            return responseEntityLoader.getIndexedSitesNotFoundResponse();
+    private ResponseEntity<?> getSearchResult(String cacheKey, int offset, int limit, SearchTrace trace, Supplier<Search> searchSupplier){
+        int pagesLimit = limit <= 0 ? DEFAULT_LIMIT : limit;
+        if (offset < 0) {
+            offset = 0;
         }
+        RankedSearchResult rankedResult = cacheKey == null ? null : searchResultCache.get(cacheKey, offset + pagesLimit);
+        trace.stage("cache");
+        if (rankedResult == null) {
+            rankedResult = rankSearch(searchSupplier, Math.max(offset + pagesLimit, searchResultCache.getRankedPagesCount()), trace);
+            if (cacheKey != null) {
+                searchResultCache.put(cacheKey, rankedResult);
+            }
+        } else {
+            trace.setCached(true);
+        }
+        return getResultPage(rankedResult, cacheKey, offset, pagesLimit, trace);
+    }
 
-        HashMap<Integer, Lemma> targetLemmas = new HashMap<>(lemmasLoader.loadLemmasFromDBWithFreqAndIndexedSites(pageRepository.count()));
-        ArrayList<Index> indexesFromDB = new ArrayList<>(indexLoader.loadIndexFromDBByLemmas(targetLemmas.keySet()));
-
-        Search search = new Search(query, targetLemmas.values(), indexesFromDB);
-        if (search.getFoundPages().isEmpty()){
+    // Only the pages of the requested range are loaded from the database. A cursor to
+    // the next range is returned while the result can be served from the cache.
+    private ResponseEntity<?> getResultPage(RankedSearchResult rankedResult, String cacheKey, int offset, int pagesLimit, SearchTrace trace){
+        int foundPagesCount = rankedResult.getFoundPagesCount();
+        if (foundPagesCount == 0){
             return responseEntityLoader.getSearchMatchesNotFoundResponse();
         }
+        if (offset > foundPagesCount) {
+            offset = 0;
+        }
+        Map<Integer, Float> pagesRelevance = new LinkedHashMap<>();
+        int end = Math.min(offset + pagesLimit, rankedResult.getRankedPagesCount());
+        for (int position = offset; position < end; position++) {
+            pagesRelevance.put(rankedResult.getPageId(position), rankedResult.getRelevance(position));
+        }
 
-        ArrayList<Page> relevantPages = new ArrayList<>(pageLoader.loadPagesByIDFromPagesRepository(search.getFoundPages().keySet()));
+        HashMap<Integer, Page> loadedPages = new HashMap<>();
+        pageLoader.loadPagesByIDFromPagesRepository(pagesRelevance.keySet()).forEach(page -> loadedPages.put(page.getId(), page));
+        ArrayList<Page> relevantPages = new ArrayList<>();
+        pagesRelevance.keySet().forEach(pageId -> {
+            if (loadedPages.containsKey(pageId)) {
+                relevantPages.add(loadedPages.get(pageId));
+            }
+        });
+        trace.stage("pages");
 
-        ArrayList<Lemma> relevantLemmas = new ArrayList<>(search.getSearchLemmas());
+        ArrayList<Lemma> relevantLemmas = new ArrayList<>(rankedResult.getSearchLemmas());
 
-        RelevantPageLoader relevantPageLoader = new RelevantPageLoader(relevantPages, relevantLemmas, search.getFoundPages());
+        RelevantPageLoader relevantPageLoader = new RelevantPageLoader(relevantPages, relevantLemmas, pagesRelevance, snippetMaxLength);
+        trace.stage("snippets");
 
         if (relevantPageLoader.getRelevantPages().isEmpty()){
             return  responseEntityLoader.getRelevantPagesNotFoundResponse();
         }
+        String nextCursor = null;
+        if (cacheKey != null && searchResultCache.isEnabled() && offset + pagesLimit < foundPagesCount) {
+            nextCursor = new SearchCursor(rankedResult.getGeneration(), cacheKey, offset + pagesLimit, pagesLimit).encode();
+        }
         SearchResultEntityLoader searchResultEntityLoader = new SearchResultEntityLoader(siteRepository);
-        return searchResultEntityLoader.getSearchResultJson(relevantPageLoader.getRelevantPages());
+        ResponseEntity<SearchResponse> response = searchResultEntityLoader.getSearchResultJson(relevantPageLoader.getRelevantPages(), foundPagesCount, nextCursor);
+        trace.stage("response");
+        return response;
     }
 
-
+    // The generation is read before the search, so a result computed while the index
+    // changes is stored under the old generation and never served.
+    private RankedSearchResult rankSearch(Supplier<Search> searchSupplier, int rankedPagesCount, SearchTrace trace){
+        long generation = indexGeneration.get();
+        Search search = searchSupplier.get();
+        if (search == null) {
+            return new RankedSearchResult(generation, new ArrayList<>(), 0, new PageRanker.RankedPage[0]);
+        }
+        PageRanker pageRanker = new PageRanker(search.getFoundPages(), rankedPagesCount);
+        RankedSearchResult rankedResult = new RankedSearchResult(generation, search.getSearchLemmas(), pageRanker.getFoundPagesCount(), pageRanker.getTopPages());
+        trace.stage("rank");
+        return rankedResult;
+    }
 }
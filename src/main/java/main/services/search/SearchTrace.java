@@ -0,0 +1,65 @@
+package main.services.search;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Time spent by one search request in each stage. A stage ends when the next
+// one is marked, so the stages add up to the whole request.
+public class SearchTrace {
+
+    private final String query;
+    private final long start = System.nanoTime();
+    private final Map<String, Long> stageNanos = new LinkedHashMap<>();
+    private long stageStart = start;
+    private long totalNanos = -1;
+    private int lemmasCount;
+    private boolean cached;
+
+    public SearchTrace(String query) {
+        this.query = query == null ? "" : query;
+    }
+
+    public void stage(String name) {
+        long now = System.nanoTime();
+        stageNanos.merge(name, now - stageStart, Long::sum);
+        stageStart = now;
+    }
+
+    public void finish() {
+        if (totalNanos < 0) {
+            totalNanos = System.nanoTime() - start;
+        }
+    }
+
+    public Map<String, Long> getStageNanos() {
+        return stageNanos;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos < 0 ? System.nanoTime() - start : totalNanos;
+    }
+
+    public void setLemmasCount(int lemmasCount) {
+        this.lemmasCount = lemmasCount;
+    }
+
+    public boolean isCached() {
+        return cached;
+    }
+
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        result.append("query=\"").append(query).append("\", lemmas=").append(lemmasCount)
+                .append(", cached=").append(cached)
+                .append(", total=").append(TimeUnit.NANOSECONDS.toMillis(getTotalNanos())).append(" ms");
+        stageNanos.forEach((stage, nanos) ->
+                result.append(", ").append(stage).append('=').append(TimeUnit.NANOSECONDS.toMillis(nanos)).append(" ms"));
+        return result.toString();
+    }
+}
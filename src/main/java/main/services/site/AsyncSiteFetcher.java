@@ -0,0 +1,198 @@
+package main.services.site;
+
+import lombok.extern.slf4j.Slf4j;
+import main.data.dto.FetchedPage;
+import main.services.index.IndexingMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class AsyncSiteFetcher {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int IO_THREADS = 2;
+
+    private final HostPolitenessScheduler politenessScheduler;
+    private final IndexingMetrics indexingMetrics;
+    private final String userAgent;
+    private final int maxInFlightPerHost;
+    private final ExecutorService ioExecutor;
+    private final HttpClient httpClient;
+    private final Map<String, HostSlots> hostSlots = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AsyncSiteFetcher(HostPolitenessScheduler politenessScheduler,
+                            IndexingMetrics indexingMetrics,
+                            @Value("${user-agent.name}") String userAgent,
+                            @Value("${crawler.max-in-flight-per-host}") int maxInFlightPerHost) {
+        this.politenessScheduler = politenessScheduler;
+        this.indexingMetrics = indexingMetrics;
+        this.userAgent = userAgent;
+        this.maxInFlightPerHost = Math.max(1, maxInFlightPerHost);
+        AtomicInteger counter = new AtomicInteger();
+        this.ioExecutor = Executors.newFixedThreadPool(IO_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "fetch-io-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = HttpClient.newBuilder()
+                .executor(ioExecutor)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(CONNECT_TIMEOUT)
+                .build();
+        indexingMetrics.gauge("indexing.fetch.in-flight", this, AsyncSiteFetcher::getInFlightRequests);
+    }
+
+    public CompletableFuture<FetchedPage> fetch(String url) {
+        String host = HostPolitenessScheduler.getHost(url);
+        HostSlots slots = hostSlots.computeIfAbsent(host, key -> new HostSlots(maxInFlightPerHost));
+        return slots.submit(() -> politenessScheduler.schedule(url, () -> send(url, host)));
+    }
+
+    public int getInFlightRequests() {
+        int inFlight = 0;
+        for (HostSlots slots : hostSlots.values()) {
+            inFlight += slots.getInFlight();
+        }
+        return inFlight;
+    }
+
+    @PreDestroy
+    public void shutdownExecutor() {
+        ioExecutor.shutdownNow();
+    }
+
+    private CompletableFuture<FetchedPage> send(String url, String host) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("User-Agent", userAgent)
+                    .header("Referer", "http://www.google.com")
+                    .GET()
+                    .build();
+        } catch (IllegalArgumentException exception) {
+            log.info("Could not connect to site at " + url, exception);
+            return CompletableFuture.completedFuture(FetchedPage.failed(url));
+        }
+        long start = System.nanoTime();
+        return httpClient.sendAsync(request, this::handleBody)
+                .thenApply(response -> new FetchedPage(response.uri().toString(), response.statusCode(), response.body()))
+                .exceptionally(throwable -> {
+                    log.info("Could not connect to site at " + url, throwable);
+                    return FetchedPage.failed(url);
+                })
+                .whenComplete((page, throwable) -> indexingMetrics.pageFetched(host,
+                        page == null ? 0 : page.getStatusCode(), System.nanoTime() - start));
+    }
+
+    private HttpResponse.BodySubscriber<String> handleBody(HttpResponse.ResponseInfo responseInfo) {
+        String contentType = responseInfo.headers().firstValue("Content-Type").orElse("text/html");
+        if (!isHtml(contentType)) {
+            return HttpResponse.BodySubscribers.replacing(null);
+        }
+        return HttpResponse.BodySubscribers.ofString(getCharset(contentType));
+    }
+
+    private static boolean isHtml(String contentType) {
+        String type = contentType.toLowerCase();
+        return type.startsWith("text/") || type.contains("html") || type.contains("xml");
+    }
+
+    private static Charset getCharset(String contentType) {
+        for (String parameter : contentType.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.toLowerCase().startsWith("charset=")) {
+                try {
+                    return Charset.forName(trimmed.substring("charset=".length()).replace("\"", ""));
+                } catch (Exception exception) {
+                    return StandardCharsets.UTF_8;
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    // At most capacity requests of a host are between the politeness wait and the
+    // response, the rest wait here without holding a politeness token.
+    private static class HostSlots {
+
+        private final int capacity;
+        private final Queue<Runnable> waiting = new ArrayDeque<>();
+        private int inFlight;
+
+        HostSlots(int capacity) {
+            this.capacity = capacity;
+        }
+
+        <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> request) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            Runnable start = () -> {
+                CompletableFuture<T> started;
+                try {
+                    started = request.get();
+                } catch (Throwable throwable) {
+                    release();
+                    result.completeExceptionally(throwable);
+                    return;
+                }
+                started.whenComplete((value, throwable) -> {
+                    release();
+                    if (throwable != null) {
+                        result.completeExceptionally(throwable);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            };
+            boolean startNow;
+            synchronized (this) {
+                startNow = inFlight < capacity;
+                if (startNow) {
+                    inFlight++;
+                } else {
+                    waiting.add(start);
+                }
+            }
+            if (startNow) {
+                start.run();
+            }
+            return result;
+        }
+
+        synchronized int getInFlight() {
+            return inFlight;
+        }
+
+        private void release() {
+            Runnable next;
+            synchronized (this) {
+                next = waiting.poll();
+                if (next == null) {
+                    inFlight--;
+                }
+            }
+            if (next != null) {
+                next.run();
+            }
+        }
+    }
+}
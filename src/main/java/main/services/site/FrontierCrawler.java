@@ -0,0 +1,166 @@
+package main.services.site;
+
+import lombok.extern.slf4j.Slf4j;
+import main.data.dto.ParsedPage;
+import main.data.model.Page;
+import main.data.model.Site;
+import main.data.model.Status;
+import main.data.repository.SiteRepository;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+@Slf4j
+public class FrontierCrawler {
+
+    private static final long FRONTIER_POLL_MILLIS = 50;
+    private static final int PARSE_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final Pattern EXCLUDED_RESOURCES = Pattern.compile(
+            ".*(\\.jpg|\\.png|\\.jpeg|\\.pdf|\\.pptx|\\.docx|\\.txt|\\.svg|\\.xlsx|\\.xls|\\.xml|\\.avi|\\.mpeg|\\.doc|\\.ppt|\\.rtf|\\.gif).*");
+
+    private final String siteUrl;
+    private final String rootUrl;
+    private final int siteId;
+    private final int hostWorkers;
+    private final SiteRepository siteRepository;
+    private final AsyncSiteFetcher siteFetcher;
+    private final Semaphore workerSlots;
+
+    private final BlockingQueue<String> frontier = new LinkedBlockingQueue<>();
+    private final Set<String> visited = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger crawledPagesCount = new AtomicInteger();
+    private volatile boolean stopped;
+    private volatile boolean siteFailed;
+
+    public FrontierCrawler(Site site,
+                           int hostWorkers,
+                           SiteRepository siteRepository,
+                           AsyncSiteFetcher siteFetcher) {
+        this.siteUrl = site.getUrl();
+        this.rootUrl = stripTrailingSlash(site.getUrl());
+        this.siteId = site.getId();
+        this.hostWorkers = Math.max(1, hostWorkers);
+        this.siteRepository = siteRepository;
+        this.siteFetcher = siteFetcher;
+        this.workerSlots = new Semaphore(this.hostWorkers);
+    }
+
+    // True when the crawl was stopped because the site was marked as failed.
+    public boolean isSiteFailed() {
+        return siteFailed;
+    }
+
+    public int getFrontierSize() {
+        return frontier.size();
+    }
+
+    public int crawl(BlockingQueue<ParsedPage> crawledPages) {
+        ExecutorService parseExecutor = Executors.newFixedThreadPool(PARSE_THREADS);
+        enqueue(siteUrl);
+        try {
+            while (!stopped && pending.get() > 0) {
+                workerSlots.acquire();
+                String url = frontier.poll(FRONTIER_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (url == null) {
+                    workerSlots.release();
+                    continue;
+                }
+                dispatch(url, crawledPages, parseExecutor);
+            }
+            workerSlots.acquire(hostWorkers);
+        } catch (InterruptedException e) {
+            stopped = true;
+            Thread.currentThread().interrupt();
+        } finally {
+            parseExecutor.shutdownNow();
+        }
+        return crawledPagesCount.get();
+    }
+
+    private void dispatch(String url, BlockingQueue<ParsedPage> crawledPages, ExecutorService parseExecutor) {
+        siteFetcher.fetch(url)
+                .thenApplyAsync(SiteConnector::new, parseExecutor)
+                .whenComplete((siteConnector, throwable) -> {
+                    try {
+                        if (throwable != null) {
+                            log.info("Could not crawl page at " + url, throwable);
+                        } else if (!stopped) {
+                            visit(url, siteConnector, crawledPages);
+                        }
+                    } catch (InterruptedException exception) {
+                        stopped = true;
+                        Thread.currentThread().interrupt();
+                    } catch (Exception exception) {
+                        log.info("Could not crawl page at " + url, exception);
+                    } finally {
+                        pending.decrementAndGet();
+                        workerSlots.release();
+                    }
+                });
+    }
+
+    private void visit(String url, SiteConnector siteConnector, BlockingQueue<ParsedPage> crawledPages) throws InterruptedException {
+        if (siteFailed()) {
+            siteFailed = true;
+            stopped = true;
+            return;
+        }
+        if (!siteConnector.isConnected()) {
+            return;
+        }
+        Document document = siteConnector.getSiteDocument();
+        if (document == null) {
+            return;
+        }
+        for (Element href : document.select("a[href]")) {
+            String childUrl = stripFragment(href.attr("abs:href"));
+            if (checkHref(childUrl)) {
+                enqueue(childUrl);
+            }
+        }
+        Page page = new Page(getPath(url), siteConnector.getStatusCode(), document.toString(), siteId);
+        crawledPages.put(new ParsedPage(page, document));
+        crawledPagesCount.incrementAndGet();
+    }
+
+    private void enqueue(String url) {
+        if (visited.add(url)) {
+            pending.incrementAndGet();
+            frontier.add(url);
+        }
+    }
+
+    private boolean siteFailed() {
+        return siteRepository.findById(siteId)
+                .map(site -> site.getStatus().equals(Status.FAILED))
+                .orElse(true);
+    }
+
+    private boolean checkHref(String url) {
+        return url.startsWith(rootUrl)
+                && url.length() >= rootUrl.length() + 2
+                && !url.contains("?method")
+                && !url.contains("go?")
+                && !url.contains("vkontakte")
+                && !EXCLUDED_RESOURCES.matcher(url.toLowerCase()).matches();
+    }
+
+    private String getPath(String url) {
+        String path = url.startsWith(rootUrl) ? url.substring(rootUrl.length()) : url;
+        return path.isEmpty() ? "/" : path;
+    }
+
+    private static String stripFragment(String url) {
+        int fragment = url.indexOf('#');
+        return fragment < 0 ? url : url.substring(0, fragment);
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
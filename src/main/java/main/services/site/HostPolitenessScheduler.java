@@ -0,0 +1,112 @@
+package main.services.site;
+
+import lombok.extern.slf4j.Slf4j;
+import main.data.model.PolitenessParamList;
+import main.services.index.IndexingMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class HostPolitenessScheduler {
+
+    private final PolitenessParamList politenessParamList;
+    private final IndexingMetrics indexingMetrics;
+    private final Map<String, HostBucket> buckets = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+
+    @Autowired
+    public HostPolitenessScheduler(PolitenessParamList politenessParamList, IndexingMetrics indexingMetrics) {
+        this.politenessParamList = politenessParamList;
+        this.indexingMetrics = indexingMetrics;
+        this.timer = Executors.newSingleThreadScheduledExecutor(daemonThreads("politeness-timer"));
+    }
+
+    public <T> CompletableFuture<T> schedule(String url, Supplier<CompletableFuture<T>> request) {
+        HostBucket bucket = buckets.computeIfAbsent(getHost(url), this::createBucket);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long waitNanos = bucket.reserve();
+        timer.schedule(() -> {
+            bucket.dispatched();
+            indexingMetrics.politenessWait(bucket.host, waitNanos);
+            try {
+                request.get().whenComplete((value, throwable) -> {
+                    if (throwable != null) {
+                        result.completeExceptionally(throwable);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            } catch (Throwable throwable) {
+                result.completeExceptionally(throwable);
+            }
+        }, waitNanos, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdownExecutor() {
+        timer.shutdownNow();
+    }
+
+    // Requests waiting for a token are published per host, the wait itself is timed on dispatch.
+    private HostBucket createBucket(String host) {
+        HostBucket bucket = new HostBucket(host, politenessParamList.getDelayForHost(host), politenessParamList.getBurst());
+        indexingMetrics.hostGauge("indexing.politeness.queued", host, bucket.queued, AtomicInteger::get);
+        return bucket;
+    }
+
+    public static String getHost(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? url : host.toLowerCase();
+        } catch (IllegalArgumentException exception) {
+            return url;
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Token bucket in virtual-time form: a request may start once the bucket
+    // holds a token, tokens refill one per delay up to the configured burst.
+    private static class HostBucket {
+
+        private final String host;
+        private final long delayNanos;
+        private final long toleranceNanos;
+        private final AtomicInteger queued = new AtomicInteger();
+        private long theoreticalArrival = System.nanoTime();
+
+        HostBucket(String host, long delayMillis, int burst) {
+            this.host = host;
+            this.delayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+            this.toleranceNanos = delayNanos * (Math.max(1, burst) - 1);
+        }
+
+        synchronized long reserve() {
+            long now = System.nanoTime();
+            long start = Math.max(now, theoreticalArrival - toleranceNanos);
+            theoreticalArrival = Math.max(theoreticalArrival, now) + delayNanos;
+            queued.incrementAndGet();
+            return start - now;
+        }
+
+        void dispatched() {
+            queued.decrementAndGet();
+        }
+    }
+}
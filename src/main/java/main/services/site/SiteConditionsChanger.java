@@ -55,6 +55,17 @@ public class SiteConditionsChanger {
         siteRepository.save(site);
     }
 
+    public void changeSiteConditionsSaveFailed(int siteId, String error){
+        siteRepository.findById(siteId).ifPresent(site -> {
+            if (site.getStatus().equals(Status.INDEXING)) {
+                site.setStatus(Status.FAILED);
+                site.setLastError("Ошибка сохранения страниц: " + error);
+                site.setStatusTime(LocalDateTime.now());
+                siteRepository.save(site);
+            }
+        });
+    }
+
     public void changeSitesConditionStopIndex(){
         for (Site site : siteRepository.findAll()){
             if(site.getStatus().equals(Status.INDEXING)){
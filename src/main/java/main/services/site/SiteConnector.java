@@ -1,7 +1,7 @@
 package main.services.site;
 
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Connection;
+import main.data.dto.FetchedPage;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 
@@ -9,52 +9,33 @@ import org.jsoup.nodes.Document;
 @Slf4j
 public class SiteConnector {
 
-    private Connection.Response cachedResource;
-    private String userAgent;
-    private String siteUrl;
+    private final FetchedPage fetchedPage;
+    private Document siteDocument;
 
-    public SiteConnector(String userAgent, String siteUrl) {
-        this.userAgent = userAgent;
-        this.siteUrl = siteUrl;
-        setCachedResource();
+    public SiteConnector(FetchedPage fetchedPage) {
+        this.fetchedPage = fetchedPage;
     }
 
-    private void setCachedResource(){
-        try {
-           cachedResource = Jsoup.connect(siteUrl).userAgent(userAgent).referrer("http://www.google.com").ignoreHttpErrors(true).maxBodySize(0).execute();
-           Thread.sleep(650);
-        } catch (Exception exception ) {
-            log.info("Could not connect to site at " + siteUrl, exception);
-        }
-    }
-
-    public Connection.Response getCachedResource() {
-        return cachedResource;
+    public boolean isConnected() {
+        return fetchedPage.isConnected();
     }
 
     public int getStatusCode(){
-        int stat = 0;
-        try {
-            if (this.cachedResource != null){
-                stat = this.cachedResource.statusCode();
-            }
-        } catch (Exception ex){
-            log.info("Could not connect to site at " + siteUrl, ex);
-        }
-        return stat;
+        return fetchedPage.getStatusCode();
     }
 
     public Document getSiteDocument(){
-        if(this.cachedResource == null){
+        if (!fetchedPage.isConnected()) {
             return new Document("");
         }
-        Document result = null;
-        try {
-            result = this.cachedResource.parse();
-        } catch (Exception exception) {
-            log.info("Could not connect to site at " + siteUrl, exception);
+        if (siteDocument == null) {
+            try {
+                siteDocument = Jsoup.parse(fetchedPage.getBody(), fetchedPage.getUrl());
+            } catch (Exception exception) {
+                log.info("Could not parse page at " + fetchedPage.getUrl(), exception);
+            }
         }
-        return result;
+        return siteDocument;
     }
 
 }
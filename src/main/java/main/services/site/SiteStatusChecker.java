@@ -7,6 +7,9 @@ import main.data.repository.SiteRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 @NoArgsConstructor
 public class SiteStatusChecker {
@@ -36,4 +39,10 @@ public class SiteStatusChecker {
         return false;
     }
 
+    public List<Integer> getIndexedSiteIds(){
+        List<Integer> indexedSiteIds = new ArrayList<>();
+        siteRepository.findByStatus(Status.INDEXED).forEach(site -> indexedSiteIds.add(site.getId()));
+        return indexedSiteIds;
+    }
+
 }
@@ -0,0 +1,63 @@
+package main.services.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostingListTest {
+
+    @Test
+    void decodesSingleElementLists() {
+        for (int pageId : new int[]{0, 1, 127, 128, 16_384, 1 << 21, Integer.MAX_VALUE}) {
+            assertRoundTrip(new int[]{pageId});
+        }
+    }
+
+    @Test
+    void decodesGapsOfEveryVarintLength() {
+        assertRoundTrip(new int[]{1, 128, 128 + 16_384, (1 << 21) + 200_000, (1 << 28) + 5, Integer.MAX_VALUE - 1, Integer.MAX_VALUE});
+        assertRoundTrip(new int[]{0, Integer.MAX_VALUE});
+        assertRoundTrip(new int[]{(1 << 21) - 1, 1 << 22, (1 << 22) + (1 << 21) + 1});
+    }
+
+    @Test
+    void decodesRandomLists() {
+        Random random = new Random(42);
+        for (int run = 0; run < 200; run++) {
+            TreeSet<Integer> pageIds = new TreeSet<>();
+            int bound = run % 2 == 0 ? 10_000 : Integer.MAX_VALUE;
+            for (int count = 1 + random.nextInt(500); pageIds.size() < count; ) {
+                pageIds.add(random.nextInt(bound));
+            }
+            assertRoundTrip(pageIds.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    @Test
+    void rejectsPagesOutOfOrder() {
+        PostingList.Builder builder = new PostingList.Builder("дом", 1, 1, 2).add(10, 1.0f);
+
+        assertThrows(IllegalArgumentException.class, () -> builder.add(10, 1.0f));
+        assertThrows(IllegalArgumentException.class, () -> builder.add(5, 1.0f));
+    }
+
+    private static void assertRoundTrip(int[] pageIds) {
+        PostingList.Builder builder = new PostingList.Builder("дом", 7, 3, pageIds.length);
+        for (int posting = 0; posting < pageIds.length; posting++) {
+            builder.add(pageIds[posting], posting + 0.5f);
+        }
+        PostingList postingList = builder.build();
+
+        assertEquals(pageIds.length, postingList.size());
+        assertArrayEquals(pageIds, postingList.getPageIds());
+        for (int posting = 0; posting < pageIds.length; posting++) {
+            assertEquals(posting + 0.5f, postingList.getRank(posting));
+        }
+        assertEquals("дом", postingList.getLemma());
+        assertEquals(7, postingList.getLemmaId());
+        assertEquals(3, postingList.getSiteId());
+    }
+}
@@ -0,0 +1,41 @@
+package main.services.page;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnippetBuilderTest {
+
+    @Test
+    void highlightsFoundWordsOfShortText() {
+        String text = "Новые дома на улице";
+        Map<String, int[]> offsets = SnippetBuilder.findLemmaOffsets(text, Set.of("дом", "улица"));
+
+        assertEquals("Новые <b>дома</b> на <b>улице</b>", new SnippetBuilder(100).build(text, offsets));
+    }
+
+    @Test
+    void cutsLongTextAroundFoundWord() {
+        String text = "начало ".repeat(20) + "найденное " + "конец ".repeat(20);
+        int wordStart = text.indexOf("найденное");
+
+        String snippet = new SnippetBuilder(30).build(text, Map.of("найти", new int[]{wordStart}));
+
+        assertTrue(snippet.startsWith("..."));
+        assertTrue(snippet.endsWith("..."));
+        assertTrue(snippet.contains("<b>найденное</b>"));
+    }
+
+    @Test
+    void cutsSingleWordLongerThanSnippet() {
+        String word = "а".repeat(50);
+        String text = "до " + word + " после";
+
+        String snippet = new SnippetBuilder(10).build(text, Map.of("слово", new int[]{3}));
+
+        assertEquals("...<b>" + "а".repeat(10) + "</b>...", snippet);
+    }
+}
@@ -0,0 +1,92 @@
+package main.services.search;
+
+import main.data.model.Index;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageRankerTest {
+
+    private final Random random = new Random(42);
+
+    @Test
+    void keepsSameTopPagesAsFullSort() {
+        for (int run = 0; run < 500; run++) {
+            Map<Integer, List<Index>> foundPages = randomFoundPages(random.nextInt(100));
+            int topCount = random.nextInt(120);
+
+            assertRanking(foundPages, topCount);
+        }
+    }
+
+    @Test
+    void ordersTiedPagesById() {
+        Map<Integer, List<Index>> foundPages = new HashMap<>();
+        for (int pageId = 20; pageId > 0; pageId--) {
+            foundPages.put(pageId, List.of(new Index(pageId, 1, pageId % 2 == 0 ? 1.0f : 2.0f)));
+        }
+
+        PageRanker.RankedPage[] topPages = new PageRanker(foundPages, 5).getTopPages();
+
+        assertArrayEquals(new int[]{1, 3, 5, 7, 9}, Arrays.stream(topPages).mapToInt(PageRanker.RankedPage::getPageId).toArray());
+        assertRanking(foundPages, 15);
+    }
+
+    @Test
+    void returnsAllPagesWhenMoreAreRequested() {
+        Map<Integer, List<Index>> foundPages = randomFoundPages(10);
+
+        assertEquals(10, new PageRanker(foundPages, 50).getTopPages().length);
+        assertRanking(foundPages, 50);
+    }
+
+    @Test
+    void countsFoundPagesWhenNoneAreRequested() {
+        Map<Integer, List<Index>> foundPages = randomFoundPages(10);
+        PageRanker pageRanker = new PageRanker(foundPages, 0);
+
+        assertEquals(0, pageRanker.getTopPages().length);
+        assertEquals(10, pageRanker.getFoundPagesCount());
+        assertEquals(0, new PageRanker(new HashMap<>(), 10).getTopPages().length);
+    }
+
+    // Ranks are taken from a few values, so many pages have equal scores.
+    private Map<Integer, List<Index>> randomFoundPages(int count) {
+        Map<Integer, List<Index>> foundPages = new HashMap<>();
+        while (foundPages.size() < count) {
+            int pageId = 1 + random.nextInt(1000);
+            List<Index> indexes = new ArrayList<>();
+            for (int lemmaId = 1 + random.nextInt(3); lemmaId > 0; lemmaId--) {
+                indexes.add(new Index(pageId, lemmaId, 0.4f * (1 + random.nextInt(3))));
+            }
+            foundPages.put(pageId, indexes);
+        }
+        return foundPages;
+    }
+
+    private static void assertRanking(Map<Integer, List<Index>> foundPages, int topCount) {
+        Map<Integer, Float> scores = new HashMap<>();
+        foundPages.forEach((pageId, indexes) -> {
+            float score = 0;
+            for (Index index : indexes) {
+                score += index.getRank();
+            }
+            scores.put(pageId, score);
+        });
+        List<Integer> sorted = new ArrayList<>(scores.keySet());
+        sorted.sort(Comparator.comparing((Integer pageId) -> scores.get(pageId)).reversed().thenComparing(pageId -> pageId));
+        List<Integer> expected = sorted.subList(0, Math.min(topCount, sorted.size()));
+        float maxScore = scores.values().stream().max(Float::compare).orElse(0f);
+
+        PageRanker pageRanker = new PageRanker(foundPages, topCount);
+        assertEquals(foundPages.size(), pageRanker.getFoundPagesCount());
+        PageRanker.RankedPage[] topPages = pageRanker.getTopPages();
+        assertEquals(expected, Arrays.stream(topPages).map(PageRanker.RankedPage::getPageId).collect(Collectors.toList()));
+        for (PageRanker.RankedPage page : topPages) {
+            assertEquals(scores.get(page.getPageId()) / maxScore, page.getRelevance(), 1e-6);
+        }
+    }
+}
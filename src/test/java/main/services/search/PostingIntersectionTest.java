@@ -0,0 +1,91 @@
+package main.services.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostingIntersectionTest {
+
+    private final Random random = new Random(42);
+
+    @Test
+    void intersectsLikeSetsOnRandomLists() {
+        for (int run = 0; run < 1000; run++) {
+            int[] first = randomPageIds(random.nextInt(50), 200);
+            int[] second = randomPageIds(random.nextInt(50), 200);
+
+            assertArrayEquals(intersectSets(first, second), PostingIntersection.intersect(first, second));
+            assertArrayEquals(intersectSets(first, second), PostingIntersection.intersectAll(List.of(first, second)));
+        }
+    }
+
+    @Test
+    void intersectsListsOfVeryUnequalLength() {
+        for (int run = 0; run < 50; run++) {
+            int[] rare = randomPageIds(1 + random.nextInt(5), 1_000_000);
+            int[] frequent = withSomeOf(randomPageIds(20_000, 1_000_000), rare);
+            int[] common = withSomeOf(rare, frequent);
+
+            assertArrayEquals(intersectSets(rare, frequent), PostingIntersection.intersect(rare, frequent));
+            assertArrayEquals(intersectSets(rare, frequent, common), PostingIntersection.intersectAll(List.of(frequent, common, rare)));
+        }
+    }
+
+    @Test
+    void intersectsEmptyAndSingleElementLists() {
+        int[] empty = new int[0];
+        int[] pageIds = {1, 5, 9};
+
+        assertArrayEquals(empty, PostingIntersection.intersect(empty, pageIds));
+        assertArrayEquals(empty, PostingIntersection.intersect(pageIds, empty));
+        assertArrayEquals(empty, PostingIntersection.intersectAll(List.of()));
+        assertArrayEquals(new int[]{5}, PostingIntersection.intersect(new int[]{5}, pageIds));
+        assertArrayEquals(empty, PostingIntersection.intersect(new int[]{4}, pageIds));
+        assertArrayEquals(new int[]{9}, PostingIntersection.intersectAll(List.of(pageIds, new int[]{9})));
+        assertArrayEquals(empty, PostingIntersection.intersect(new int[]{10}, pageIds));
+    }
+
+    @Test
+    void gallopFindsFirstPositionNotLessThanTarget() {
+        int[] pageIds = randomPageIds(1000, 100_000);
+        for (int run = 0; run < 1000; run++) {
+            int from = random.nextInt(pageIds.length + 1);
+            int target = random.nextInt(100_001);
+            int expected = from;
+            while (expected < pageIds.length && pageIds[expected] < target) {
+                expected++;
+            }
+
+            assertEquals(expected, PostingIntersection.gallop(pageIds, from, target));
+        }
+    }
+
+    private int[] randomPageIds(int count, int maxPageId) {
+        TreeSet<Integer> pageIds = new TreeSet<>();
+        while (pageIds.size() < Math.min(count, maxPageId)) {
+            pageIds.add(1 + random.nextInt(maxPageId));
+        }
+        return pageIds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // Adds a random half of the other list, so the intersection is rarely empty.
+    private int[] withSomeOf(int[] pageIds, int[] other) {
+        TreeSet<Integer> result = new TreeSet<>();
+        Arrays.stream(pageIds).forEach(result::add);
+        Arrays.stream(other).filter(pageId -> random.nextBoolean()).forEach(result::add);
+        return result.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] intersectSets(int[]... postings) {
+        Set<Integer> result = new TreeSet<>();
+        Arrays.stream(postings[0]).forEach(result::add);
+        for (int[] pageIds : postings) {
+            Set<Integer> next = new HashSet<>();
+            Arrays.stream(pageIds).forEach(next::add);
+            result.retainAll(next);
+        }
+        return result.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,155 @@
+package main.services.site;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import main.data.dto.FetchedPage;
+import main.data.model.PolitenessParamList;
+import main.services.index.IndexingMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncSiteFetcherTest {
+
+    private static final String HTML = "<html><body>Главная страница</body></html>";
+
+    private final CountDownLatch slowRequested = new CountDownLatch(1);
+    private final CountDownLatch slowReleased = new CountDownLatch(1);
+    private HttpServer server;
+    private String siteUrl;
+    private RecordingScheduler scheduler;
+    private AsyncSiteFetcher fetcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.createContext("/page", exchange -> respond(exchange, "text/html; charset=UTF-8", HTML.getBytes(StandardCharsets.UTF_8)));
+        server.createContext("/image.png", exchange -> respond(exchange, "image/png", new byte[]{(byte) 0x89, 'P', 'N', 'G'}));
+        server.createContext("/broken", HttpExchange::close);
+        server.createContext("/slow", exchange -> {
+            slowRequested.countDown();
+            try {
+                slowReleased.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, "text/html", HTML.getBytes(StandardCharsets.UTF_8));
+        });
+        server.start();
+        siteUrl = "http://localhost:" + server.getAddress().getPort();
+
+        PolitenessParamList politenessParamList = new PolitenessParamList();
+        politenessParamList.setDefaultDelay(0);
+        IndexingMetrics indexingMetrics = new IndexingMetrics(new SimpleMeterRegistry());
+        scheduler = new RecordingScheduler(politenessParamList, indexingMetrics);
+        fetcher = new AsyncSiteFetcher(scheduler, indexingMetrics, "test-agent", 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        slowReleased.countDown();
+        fetcher.shutdownExecutor();
+        scheduler.shutdownExecutor();
+        server.stop(0);
+        ((ExecutorService) server.getExecutor()).shutdownNow();
+    }
+
+    @Test
+    void fetchesHtmlBody() throws Exception {
+        FetchedPage page = fetch("/page");
+
+        assertEquals(200, page.getStatusCode());
+        assertEquals(HTML, page.getBody());
+        assertTrue(page.getUrl().endsWith("/page"));
+    }
+
+    @Test
+    void turnsNonHtmlBodyIntoNull() throws Exception {
+        FetchedPage page = fetch("/image.png");
+
+        assertEquals(200, page.getStatusCode());
+        assertNull(page.getBody());
+        assertFalse(page.isConnected());
+    }
+
+    @Test
+    void releasesHostSlotWhenRequestFails() throws Exception {
+        FetchedPage failed = fetch("/broken");
+
+        assertEquals(0, failed.getStatusCode());
+        assertFalse(failed.isConnected());
+        assertEquals(0, fetcher.getInFlightRequests());
+        assertEquals(HTML, fetch("/page").getBody());
+    }
+
+    @Test
+    void releasesHostSlotWhenRequestSupplierThrows() throws Exception {
+        CompletableFuture<FetchedPage> thrown = fetcher.fetch(siteUrl + "/throw");
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> thrown.get(10, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof IllegalStateException);
+        assertEquals(0, fetcher.getInFlightRequests());
+        assertEquals(HTML, fetch("/page").getBody());
+    }
+
+    // The second request of the host waits for the slot before it asks for a politeness token.
+    @Test
+    void takesHostSlotBeforePolitenessToken() throws Exception {
+        CompletableFuture<FetchedPage> slow = fetcher.fetch(siteUrl + "/slow");
+        assertTrue(slowRequested.await(10, TimeUnit.SECONDS));
+        CompletableFuture<FetchedPage> waiting = fetcher.fetch(siteUrl + "/page");
+
+        assertEquals(1, scheduler.scheduled.get());
+        assertEquals(1, fetcher.getInFlightRequests());
+        assertFalse(waiting.isDone());
+
+        slowReleased.countDown();
+        assertEquals(HTML, slow.get(10, TimeUnit.SECONDS).getBody());
+        assertEquals(HTML, waiting.get(10, TimeUnit.SECONDS).getBody());
+        assertEquals(2, scheduler.scheduled.get());
+        assertEquals(0, fetcher.getInFlightRequests());
+    }
+
+    private FetchedPage fetch(String path) throws Exception {
+        return fetcher.fetch(siteUrl + path).get(10, TimeUnit.SECONDS);
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    // Counts the requests that asked for a token and fails the ones to /throw before they are sent.
+    private static class RecordingScheduler extends HostPolitenessScheduler {
+
+        private final AtomicInteger scheduled = new AtomicInteger();
+
+        RecordingScheduler(PolitenessParamList politenessParamList, IndexingMetrics indexingMetrics) {
+            super(politenessParamList, indexingMetrics);
+        }
+
+        @Override
+        public <T> CompletableFuture<T> schedule(String url, Supplier<CompletableFuture<T>> request) {
+            scheduled.incrementAndGet();
+            if (url.endsWith("/throw")) {
+                throw new IllegalStateException("no token for " + url);
+            }
+            return super.schedule(url, request);
+        }
+    }
+}